@@ -0,0 +1,9 @@
+File file = new File( basedir, "target/classes/test.properties" );
+assert file.exists();
+
+Properties p = new Properties();
+file.withInputStream { p.load( it ) };
+
+assert p.getProperty( "type" ) == "feature"
+assert p.getProperty( "ticket" ) == "abc-123"
+return true;
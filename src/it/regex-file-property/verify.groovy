@@ -0,0 +1,10 @@
+File file = new File( basedir, "target/classes/test.properties" );
+assert file.exists();
+
+Properties p = new Properties();
+file.withInputStream { p.load( it ) };
+
+assert p.getProperty( "version" ) == "4.2.0"
+assert p.getProperty( "name" ) == "team/app"
+assert p.getProperty( "tag" ) == "2.7.1"
+return true;
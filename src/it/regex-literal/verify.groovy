@@ -0,0 +1,9 @@
+File file = new File( basedir, "target/classes/test.properties" );
+assert file.exists();
+
+Properties p = new Properties();
+file.withInputStream { p.load( it ) };
+
+assert p.getProperty( "dotted" ) == "1_2_3-SNAPSHOT"
+assert p.getProperty( "release" ) == "1.2.3"
+return true;
@@ -0,0 +1,13 @@
+File file = new File( basedir, "build.log" );
+assert file.exists();
+
+String text = file.getText("utf-8");
+
+for ( name in ["broker", "db"] ) {
+    def base = ( text =~ /${name}=(\d+)/ )[0][1] as int
+    assert base >= 35000
+    assert text.contains( name + ".0=" + base )
+    assert text.contains( name + ".1=" + ( base + 1 ) )
+    assert text.contains( name + ".2=" + ( base + 2 ) )
+}
+return true;
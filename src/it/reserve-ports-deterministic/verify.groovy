@@ -0,0 +1,13 @@
+// The deterministic port of a name is only a starting point: the goal moves on to the next free port when it is
+// taken on this host, so only check the range and the stability across builds.
+Properties first = new Properties();
+new File( basedir, "target/ports-1.properties" ).withInputStream { first.load( it ) };
+Properties second = new Properties();
+new File( basedir, "target/ports-2.properties" ).withInputStream { second.load( it ) };
+
+for ( name in ["port1", "port2", "port3"] ) {
+    int port = first.getProperty( name ) as int
+    assert port >= 40000 && port <= 49999
+    assert second.getProperty( name ) == first.getProperty( name )
+}
+return true;
@@ -0,0 +1,10 @@
+File file = new File( basedir, "build.log" );
+assert file.exists();
+
+String text = file.getText("utf-8");
+
+assert text.contains('define property propname-initial = "uptodate"') : "Failed to define property propname-initial = \"uptodate\""
+assert text.contains('define property propname-touched = "uptodate"') : "Failed to define property propname-touched = \"uptodate\""
+assert text.contains('define property propname-changed = "outofdate"') : "Failed to define property propname-changed = \"outofdate\""
+
+return true;
@@ -0,0 +1,18 @@
+File file = new File( basedir, "build.log" );
+assert file.exists();
+
+String text = file.getText("utf-8");
+
+assert text.contains('define property propname-initial = "uptodate"') : "Failed to define property propname-initial = \"uptodate\""
+assert text.contains('define property propname-unchanged = "uptodate"') : "Failed to define property propname-unchanged = \"uptodate\""
+assert text.contains('define property propname-touched = "outofdate"') : "Failed to define property propname-touched = \"outofdate\""
+
+// the second check reuses the outcome of the first, the third only compares the files of the changed directory
+assert text =~ /No change in .* since the previous build/
+assert text =~ /Comparing the 2 files of 1 changed directories in /
+
+// the directories of the marker files are deleted when the build ends
+File state = new File( basedir, "target/build-helper/uptodate" );
+assert !state.exists() || state.listFiles().findAll { it.name.startsWith( "watch" ) }.isEmpty()
+
+return true;
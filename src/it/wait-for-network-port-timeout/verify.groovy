@@ -0,0 +1,7 @@
+File file = new File( basedir, "build.log" );
+assert file.exists();
+
+String text = file.getText("utf-8");
+
+assert text =~ /Timed out after 2 s waiting for ports \[port1 \(localhost:\d+\)\]/
+return true;
@@ -0,0 +1,9 @@
+File file = new File( basedir, "build.log" );
+assert file.exists();
+
+String text = file.getText("utf-8");
+
+assert text =~ /Port port1 \(localhost:\d+\) is ready after \d+ ms/
+assert text =~ /Port localhost:\d+ is ready after \d+ ms/
+assert !text.contains("Timed out")
+return true;
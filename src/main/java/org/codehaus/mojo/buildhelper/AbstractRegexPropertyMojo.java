@@ -24,16 +24,47 @@ package org.codehaus.mojo.buildhelper;
  * SOFTWARE.
  */
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Parameter;
 import org.codehaus.plexus.util.StringUtils;
 
 public abstract class AbstractRegexPropertyMojo extends AbstractDefinePropertyMojo {
+    /**
+     * The characters which have a meaning of their own in a regex.
+     */
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    @Parameter(readonly = true, defaultValue = "${session}")
+    private MavenSession mavenSession;
+
+    /**
+     * The maximum time in milliseconds spent matching the regex of a setting, so that a regex which backtracks
+     * catastrophically fails the build naming the setting instead of hanging it. For
+     * <code>regex-file-property</code>, this covers the search of the whole file. <code>0</code>, the default, for no
+     * limit, which leaves the input unwrapped so that matching costs nothing extra.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(property = "buildhelper.regex.timeout", defaultValue = "0")
+    private long regexTimeout;
+
+    /**
+     * The maximum number of characters the regex engine may read while matching the regex of a setting, counting the
+     * characters read again on backtracking. <code>0</code> for no limit.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(property = "buildhelper.regex.maxSteps", defaultValue = "0")
+    private long regexMaxSteps;
 
     protected void execute(RegexPropertySetting config) throws MojoExecutionException, MojoFailureException {
         try {
@@ -42,38 +73,217 @@ public abstract class AbstractRegexPropertyMojo extends AbstractDefinePropertyMo
             throw new MojoExecutionException(e.getMessage(), e);
         }
 
+        if (config.isCapture()) {
+            List<String> groups = getGroupNames(config);
+            RegexBudget budget = newBudget();
+            Matcher matcher = compile(config.getRegex(), 0).matcher(budget.wrap(config.getValue()));
+            if (find(config, matcher, budget)) {
+                defineGroups(config, matcher, groups);
+            } else {
+                noMatch(config, "No property is defined...");
+            }
+            return;
+        }
+
+        // if the string replacement is empty, we define the value replacement to empty.
+        String replacement = StringUtils.isNotEmpty(config.getReplacement()) ? config.getReplacement() : "";
+        boolean literal = config.isLiteral() || isLiteral(config.getRegex());
+        String result;
+        if (literal && replacement.indexOf('$') < 0 && replacement.indexOf('\\') < 0) {
+            result = replaceLiteral(config.getValue(), config.getRegex(), replacement);
+        } else {
+            RegexBudget budget = newBudget();
+            Matcher matcher =
+                    compile(config.getRegex(), literal ? Pattern.LITERAL : 0).matcher(budget.wrap(config.getValue()));
+            try {
+                result = matcher.find() ? replaceFrom(matcher, replacement) : null;
+            } catch (RegexBudget.ExceededException e) {
+                throw budgetExceeded(config, budget, e);
+            }
+        }
+
+        if (result != null) {
+            config.setValue(result);
+        } else {
+            noMatch(config, "The initial value '" + config.getValue() + "' is left as-is...");
+        }
+
+        config.setValue(changeCase(config, config.getValue()));
+
+        defineProperty(config.getName(), config.getValue());
+    }
+
+    /**
+     * Creates the budget of the evaluation of a setting.
+     */
+    protected RegexBudget newBudget() {
+        return new RegexBudget(regexMaxSteps, regexTimeout);
+    }
+
+    private boolean find(RegexPropertySetting config, Matcher matcher, RegexBudget budget)
+            throws MojoExecutionException {
+        try {
+            return matcher.find();
+        } catch (RegexBudget.ExceededException e) {
+            throw budgetExceeded(config, budget, e);
+        }
+    }
+
+    /**
+     * Reports a regex which spent its budget, naming its setting.
+     */
+    protected static MojoExecutionException budgetExceeded(
+            RegexPropertySetting config, RegexBudget budget, RegexBudget.ExceededException e) {
+        return new MojoExecutionException(
+                "Matching the regex '" + config.getRegex() + "' of the property "
+                        + config.getName() + " exceeded its budget: " + e.getMessage() + " after " + budget.getSteps()
+                        + " characters read. Check it for catastrophic backtracking or raise"
+                        + " regexTimeout/regexMaxSteps",
+                e);
+    }
+
+    protected void noMatch(RegexPropertySetting config, String outcome) throws MojoFailureException {
+        if (config.isFailIfNoMatch()) {
+            throw new MojoFailureException(
+                    "No match to regex '" + config.getRegex() + "' found in '" + config.getValue() + "'.");
+        } else {
+            getLog().info("No match to regex '" + config.getRegex() + "' found in '" + config.getValue() + "'. "
+                    + outcome);
+        }
+    }
+
+    protected static String changeCase(RegexPropertySetting config, String value) {
+        if (config.isToLowerCase()) {
+            return value.toLowerCase(Locale.getDefault());
+        }
+        if (config.isToUpperCase()) {
+            return value.toUpperCase(Locale.getDefault());
+        }
+        return value;
+    }
+
+    /**
+     * Returns the named groups of the regex of a setting in capture mode.
+     *
+     * @throws MojoExecutionException if the regex has no named group.
+     */
+    protected static List<String> getGroupNames(RegexPropertySetting config) throws MojoExecutionException {
+        List<String> groups = getGroupNames(config.getRegex());
+        if (groups.isEmpty()) {
+            throw new MojoExecutionException("The regex '" + config.getRegex() + "' of the property " + config.getName()
+                    + " has no named group to capture");
+        }
+        return groups;
+    }
+
+    /**
+     * Defines a property <code>name.group</code> for each named group of a match. Groups which did not take part in
+     * the match are left undefined.
+     *
+     * @param config the setting whose name prefixes the properties.
+     * @param matcher the matcher holding the match.
+     * @param groups the names of the groups of the regex.
+     */
+    protected void defineGroups(RegexPropertySetting config, Matcher matcher, List<String> groups) {
+        for (String group : groups) {
+            String value = matcher.group(group);
+            if (value != null) {
+                defineProperty(config.getName() + "." + group, changeCase(config, value));
+            }
+        }
+    }
+
+    /**
+     * Lists the names of the named groups of a regex, in order of appearance. The names are parsed out of the regex,
+     * as {@link Pattern} only exposes them from Java 20 on.
+     */
+    static List<String> getGroupNames(String regex) {
+        List<String> names = new ArrayList<>();
+        boolean inClass = false;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (regex.startsWith("Q", i + 1)) {
+                    int end = regex.indexOf("\\E", i + 2);
+                    i = end < 0 ? regex.length() : end + 1;
+                } else {
+                    i++;
+                }
+            } else if (c == '[') {
+                inClass = true;
+            } else if (c == ']') {
+                inClass = false;
+            } else if (!inClass && regex.startsWith("(?<", i)) {
+                int end = regex.indexOf('>', i + 3);
+                // (?<= and (?<! are lookbehinds
+                if (end > i + 3 && Character.isLetter(regex.charAt(i + 3))) {
+                    names.add(regex.substring(i + 3, end));
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Compiles a regex through the cache of the session. The same settings are usually inherited by all modules, so
+     * each regex is only compiled once per session.
+     */
+    protected Pattern compile(String regex, int flags) throws MojoExecutionException {
+        PatternCache patternCache = PatternCache.get(mavenSession);
         Pattern pattern;
         try {
-            pattern = Pattern.compile(config.getRegex());
+            pattern = patternCache.compile(regex, flags);
         } catch (PatternSyntaxException e) {
             throw new MojoExecutionException(e.getMessage(), e);
         }
-        Matcher matcher = pattern.matcher(config.getValue());
-
-        if (matcher.find()) {
-            // if the string replacement is empty, we define the value replacement to empty.
-            config.setValue(
-                    (StringUtils.isNotEmpty(config.getReplacement())
-                            ? matcher.replaceAll(config.getReplacement())
-                            : matcher.replaceAll("")));
-        } else {
-            if (config.isFailIfNoMatch()) {
-                throw new MojoFailureException(
-                        "No match to regex '" + config.getRegex() + "' found in '" + config.getValue() + "'.");
-            } else {
-                getLog().info("No match to regex '" + config.getRegex() + "' found in '" + config.getValue() + "'. "
-                        + "The initial value '" + config.getValue() + "' is left as-is...");
-            }
+        if (getLog().isDebugEnabled()) {
+            getLog().debug("Pattern cache: " + patternCache.getHits() + " hits, " + patternCache.getMisses()
+                    + " misses, " + patternCache.size() + " patterns");
         }
+        return pattern;
+    }
 
-        if (config.isToLowerCase()) {
-            config.setValue(config.getValue().toLowerCase(Locale.getDefault()));
+    /**
+     * Tells whether a regex only matches itself, so that it can be looked up with {@link String#indexOf(String)}.
+     */
+    static boolean isLiteral(String regex) {
+        for (int i = 0; i < regex.length(); i++) {
+            if (REGEX_METACHARACTERS.indexOf(regex.charAt(i)) >= 0) {
+                return false;
+            }
         }
+        return true;
+    }
 
-        if (config.isToUpperCase()) {
-            config.setValue(config.getValue().toUpperCase(Locale.getDefault()));
+    /**
+     * Replaces all occurrences of a literal in a single pass.
+     *
+     * @return the replaced value, or <code>null</code> if the literal does not occur in the value.
+     */
+    static String replaceLiteral(String value, String literal, String replacement) {
+        int index = value.indexOf(literal);
+        if (index < 0) {
+            return null;
         }
+        StringBuilder sb = new StringBuilder(value.length());
+        int start = 0;
+        do {
+            sb.append(value, start, index).append(replacement);
+            start = index + literal.length();
+            index = value.indexOf(literal, start);
+        } while (index >= 0);
+        return sb.append(value, start, value.length()).toString();
+    }
 
-        defineProperty(config.getName(), config.getValue());
+    /**
+     * Replaces the match the matcher has just found and all the following ones, without finding the first one again
+     * as {@link Matcher#replaceAll(String)} would.
+     */
+    private static String replaceFrom(Matcher matcher, String replacement) {
+        StringBuffer sb = new StringBuffer();
+        do {
+            matcher.appendReplacement(sb, replacement);
+        } while (matcher.find());
+        return matcher.appendTail(sb).toString();
     }
 }
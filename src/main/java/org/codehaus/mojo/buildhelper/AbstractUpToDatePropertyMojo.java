@@ -21,16 +21,26 @@ package org.codehaus.mojo.buildhelper;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.shared.model.fileset.FileSet;
 import org.apache.maven.shared.model.fileset.mappers.MapperException;
-import org.apache.maven.shared.model.fileset.util.FileSetManager;
 import org.codehaus.plexus.util.StringUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * Abstract base for setting properties according to whether sets of source and object resources are respectively up to
@@ -40,79 +50,545 @@ import org.slf4j.LoggerFactory;
  * @since 1.12
  */
 abstract class AbstractUpToDatePropertyMojo extends AbstractDefinePropertyMojo {
-    private final Logger log = LoggerFactory.getLogger(this.getClass());
+    /**
+     * Keep an index of the files included by each file set, so that the tree is not rescanned as long as none of its
+     * directories has changed. A single changed directory causes the whole tree to be rescanned. The source and target
+     * files are still compared on every build.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(property = "buildhelper.uptodate.useIndex", defaultValue = "false")
+    private boolean useIndex;
+
+    /**
+     * How source files are compared with their targets. With <code>timestamp</code>, a target is up to date if it is
+     * not older than its source. With <code>content</code>, a target is also up to date if the content of its source
+     * is the same as when the targets were last found up to date, so that a checkout or a cache restore which only
+     * touches modification times does not invalidate them. The digests are kept in <code>stateDirectory</code>.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(property = "buildhelper.uptodate.compare", defaultValue = "timestamp")
+    private String compare;
+
+    /**
+     * The maximum number of files compared and directories walked at the same time. The checks run on virtual threads
+     * when the JVM provides them, and on a dedicated thread pool otherwise. <code>0</code> stands for the number of
+     * available processors.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(property = "buildhelper.uptodate.parallelism", defaultValue = "0")
+    private int parallelism;
+
+    /**
+     * A file to write a report of the checks to: for each setting, the first targets found out of date with the
+     * modification times of their sources, the number of files compared, the time spent walking and reading the
+     * attributes of targets, and whether the scan ended early. Written as CSV if the name ends with <code>.csv</code>,
+     * as JSON otherwise. For instance <code>${project.build.directory}/uptodate-report.json</code>.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(property = "buildhelper.uptodate.report")
+    private File report;
+
+    /**
+     * The number of out of date targets to list per setting in the <code>report</code>. The scan of a file set only
+     * ends once that many have been found.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(property = "buildhelper.uptodate.reportLimit", defaultValue = "10")
+    private int reportLimit;
+
+    /**
+     * Watch the directories of each file set once checked, so that a later build in the same JVM, such as one run by
+     * the Maven daemon (mvnd), reuses the outcome when no file changed, and only compares the files of the directories
+     * which changed when the targets are kept in a separate <code>outputDirectory</code>. Ignored where the file
+     * system cannot report changes by itself, and for file sets following symbolic links.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(property = "buildhelper.uptodate.watch", defaultValue = "false")
+    private boolean watch;
+
+    /**
+     * The directory holding the state the up-to-date checks keep between builds.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(defaultValue = "${project.build.directory}/build-helper/uptodate")
+    private File stateDirectory;
 
     protected AbstractUpToDatePropertyMojo() {}
 
     protected void execute(UpToDatePropertySetting config) throws MojoExecutionException, MojoFailureException {
-        try {
-            config.validate();
-        } catch (IllegalArgumentException e) {
-            throw new MojoExecutionException("Invalid UpToDateProperty configuration", e);
+        execute(Collections.singletonList(config));
+    }
+
+    /**
+     * Evaluates several settings at once. Settings whose file sets share a directory are evaluated in a single walk of
+     * it, and settings whose directories do not overlap are evaluated in parallel.
+     *
+     * @param configs the settings to evaluate.
+     * @throws MojoExecutionException if a setting is invalid or a file set cannot be checked.
+     * @throws MojoFailureException never.
+     * @since 3.6.2
+     */
+    protected void execute(List<UpToDatePropertySetting> configs) throws MojoExecutionException, MojoFailureException {
+        for (UpToDatePropertySetting config : configs) {
+            try {
+                config.validate();
+            } catch (IllegalArgumentException e) {
+                throw new MojoExecutionException("Invalid UpToDateProperty configuration", e);
+            }
+        }
+
+        boolean compareContent;
+        if ("content".equals(compare)) {
+            compareContent = true;
+        } else if ("timestamp".equals(compare)) {
+            compareContent = false;
+        } else {
+            throw new MojoExecutionException("Unsupported compare mode '" + compare + "', use timestamp or content");
         }
 
         // Check that all target file(s) are up to date with respect to their corresponding source files.
-        boolean upToDate = true;
-        FileSet fileSet = config.getFileSet();
-        if (fileSet != null) {
+        List<Evaluation> evaluations = new ArrayList<>();
+        List<Evaluation> pending = new ArrayList<>();
+        try (CheckExecutor executor = CheckExecutor.create(parallelism)) {
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Checking up to " + executor.getParallelism() + " files at once on "
+                        + (executor.isVirtual() ? "virtual threads" : "a thread pool"));
+            }
+            for (UpToDatePropertySetting config : configs) {
+                Evaluation evaluation = new Evaluation(config);
+                evaluations.add(evaluation);
+                FileSet fileSet = config.getFileSet();
+                if (fileSet != null) {
+                    if (config.isAggregate() && compareContent) {
+                        throw new MojoExecutionException(
+                                "The aggregate mode of " + config.getName() + " only supports compare=timestamp");
+                    }
+                    evaluation.check = new UpToDateCheck(
+                            fileSet, compareContent ? loadDigests(fileSet) : null, config.isAggregate(), getLog());
+                    if (report != null) {
+                        evaluation.check.setStaleLimit(reportLimit);
+                    }
+                    evaluation.scanner = new FileSetScanner(fileSet);
+                    if (isWatched(evaluation, executor)) {
+                        continue;
+                    }
+                    // Watch before checking, so that no change made meanwhile goes unnoticed.
+                    watch(evaluation);
+                    if (!isIndexed(evaluation, executor)) {
+                        if (evaluation.watcher != null && evaluation.includedFiles == null) {
+                            evaluation.includedFiles = Collections.synchronizedMap(new LinkedHashMap<>());
+                        }
+                        pending.add(evaluation);
+                    }
+                }
+            }
+
+            scan(pending, executor);
+
+            for (Evaluation evaluation : evaluations) {
+                if (evaluation.watcher != null) {
+                    evaluation.watcher.setOutcome(
+                            evaluation.endedEarly ? null : evaluation.includedFiles, evaluation.upToDate);
+                    FileSetWatcher.put(watchKey(evaluation), evaluation.watcher);
+                    evaluation.watcher = null;
+                }
+            }
+        } catch (MapperException e) {
+            throw new MojoExecutionException("", e);
+        } catch (UncheckedIOException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while checking the file sets", e);
+        } finally {
+            for (Evaluation evaluation : evaluations) {
+                closeWatcher(evaluation);
+            }
+        }
+
+        if (report != null) {
+            writeReport(evaluations);
+        }
+
+        for (Evaluation evaluation : evaluations) {
+            UpToDatePropertySetting config = evaluation.config;
+            Map<String, Long> directories = evaluation.snapshot != null ? evaluation.snapshot.getDirectories() : null;
+            if (directories != null && evaluation.upToDate) {
+                try {
+                    evaluation.index.store(directories, evaluation.includedFiles);
+                } catch (IOException e) {
+                    getLog().warn("Cannot write the index " + evaluation.index.getFile() + ": " + e.getMessage());
+                }
+            }
+            if (evaluation.upToDate
+                    && !evaluation.watched
+                    && evaluation.check != null
+                    && evaluation.check.getDigests() != null) {
+                ContentDigests digests = evaluation.check.getDigests();
+                try {
+                    digests.save();
+                } catch (IOException e) {
+                    getLog().warn("Cannot write the digests " + digests.getFile() + ": " + e.getMessage());
+                }
+            }
+
+            // Set the property to the appropriate value, depending on whether target files are up to date WRT source
+            // files.
+            if (evaluation.upToDate) {
+                defineProperty(config.getName(), config.getValue().trim());
+            } else if (!StringUtils.isBlank(config.getElse())) {
+                defineProperty(config.getName(), config.getElse().trim());
+            }
+        }
+    }
+
+    /**
+     * Evaluates a setting from the outcome of the previous build in this JVM, if its file set is watched and the
+     * changes since then allow it: the outcome is reused as is when nothing changed, and only the files of the changed
+     * directories are compared when the targets are known not to have changed.
+     *
+     * @return <code>true</code> if the setting was evaluated.
+     */
+    private boolean isWatched(Evaluation evaluation, CheckExecutor executor) throws InterruptedException {
+        if (!watch) {
+            return false;
+        }
+        FileSetWatcher watcher = FileSetWatcher.get(watchKey(evaluation));
+        Set<Path> changed = watcher != null ? watcher.poll() : null;
+        if (changed == null) {
+            return false;
+        }
+        long start = System.nanoTime();
+        if (changed.isEmpty()) {
+            getLog().debug("No change in " + evaluation.scanner.getBaseDir() + " since the previous build");
+            evaluation.upToDate = watcher.isUpToDate();
+        } else {
+            // With content digests or in aggregate mode, the outcome depends on files which did not change.
+            if (!watcher.isIncremental() || evaluation.config.isAggregate() || evaluation.check.getDigests() != null) {
+                return false;
+            }
+            Map<String, String> includedFiles = new LinkedHashMap<>(watcher.getIncludedFiles());
+            List<Map.Entry<String, String>> changedFiles = new ArrayList<>();
+            for (Path dir : changed) {
+                if (!list(evaluation.scanner, dir, includedFiles, changedFiles)) {
+                    return false;
+                }
+            }
+            getLog().debug("Comparing the " + changedFiles.size() + " files of " + changed.size()
+                    + " changed directories in " + evaluation.scanner.getBaseDir());
+            // Treat a file set that yields no files as intrinsically out of date.
+            evaluation.upToDate = !includedFiles.isEmpty()
+                    && executor.allMatch(
+                            changedFiles,
+                            entry -> evaluation.check.isUpToDate(entry.getKey(), entry.getValue())
+                                    || !evaluation.check.isDecided())
+                    && evaluation.check.isUpToDate();
+            evaluation.endedEarly = evaluation.check.getCompared() < changedFiles.size();
+            watcher.setOutcome(includedFiles, evaluation.upToDate);
+        }
+        evaluation.walkNanos = System.nanoTime() - start;
+        evaluation.watched = true;
+        return true;
+    }
+
+    /**
+     * Replaces the entries of a changed directory in the mapping of the included files.
+     *
+     * @param dir the directory, relative to the directory of the file set.
+     * @param changedFiles receives the included files of the directory.
+     * @return <code>false</code> if the directory cannot be listed.
+     */
+    private static boolean list(
+            FileSetScanner scanner,
+            Path dir,
+            Map<String, String> includedFiles,
+            List<Map.Entry<String, String>> changedFiles) {
+        String prefix = dir.toString().isEmpty() ? "" : dir + File.separator;
+        includedFiles
+                .keySet()
+                .removeIf(name -> name.startsWith(prefix) && name.indexOf(File.separatorChar, prefix.length()) < 0);
+        try (DirectoryStream<Path> entries =
+                Files.newDirectoryStream(scanner.getBaseDir().resolve(dir))) {
+            for (Path entry : entries) {
+                String name = prefix + entry.getFileName();
+                // Like the walk, include symbolic links to files.
+                if (Files.isRegularFile(entry) && scanner.isIncluded(name)) {
+                    String target = scanner.mapFileName(name);
+                    includedFiles.put(name, target);
+                    changedFiles.add(new AbstractMap.SimpleEntry<>(name, target));
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The outcome kept by a watcher depends on how the files were compared as well as on the file set.
+     */
+    private String watchKey(Evaluation evaluation) {
+        String fingerprint = UpToDateIndex.fingerprint(evaluation.config.getFileSet());
+        return fingerprint + '|' + compare + '|' + evaluation.config.isAggregate();
+    }
+
+    /**
+     * Starts watching the directories of a file set, unless they cannot be watched.
+     */
+    private void watch(Evaluation evaluation) {
+        FileSetScanner scanner = evaluation.scanner;
+        if (!watch || scanner.isFollowSymlinks()) {
+            return;
+        }
+        Path base = scanner.getBaseDir();
+        Path outputBase = null;
+        String outputDirectory = evaluation.config.getFileSet().getOutputDirectory();
+        if (!StringUtils.isBlank(outputDirectory)) {
+            outputBase = new File(outputDirectory).getAbsoluteFile().toPath().normalize();
+            if (outputBase.startsWith(base) || base.startsWith(outputBase)) {
+                outputBase = null;
+            } else if (!Files.isDirectory(outputBase)) {
+                // The creation of the targets would go unnoticed.
+                return;
+            }
+        }
+        if (!Files.isDirectory(base)) {
+            return;
+        }
+        try {
+            Path state = stateDirectory.getAbsoluteFile().toPath().normalize();
+            List<Path> ignored = new ArrayList<>();
+            ignored.add(state);
+            if (report != null) {
+                ignored.add(report.getAbsoluteFile().toPath().normalize());
+            }
+            evaluation.watcher = FileSetWatcher.create(base, outputBase, scanner::isDescended, ignored, state);
+            if (evaluation.watcher == null) {
+                getLog().debug("Not watching " + base + ": the file system does not report changes by itself");
+            }
+        } catch (IOException e) {
+            getLog().warn("Cannot watch " + base + ": " + e.getMessage());
+        }
+    }
+
+    private void closeWatcher(Evaluation evaluation) {
+        if (evaluation.watcher != null) {
             try {
-                FileSetManager fileSetManager = new FileSetManager(log);
-                Map<String, String> includedFiles = fileSetManager.mapIncludedFiles(fileSet);
+                evaluation.watcher.close();
+            } catch (IOException e) {
+                getLog().debug("Cannot close the watch service of " + evaluation.scanner.getBaseDir(), e);
+            }
+            evaluation.watcher = null;
+        }
+    }
 
+    /**
+     * Evaluates a setting from its index, if the index is used and still valid. Otherwise, prepares the evaluation to
+     * record a new index.
+     *
+     * @return <code>true</code> if the setting was evaluated.
+     */
+    private boolean isIndexed(Evaluation evaluation, CheckExecutor executor) throws InterruptedException {
+        if (!useIndex) {
+            return false;
+        }
+        FileSet fileSet = evaluation.config.getFileSet();
+        UpToDateIndex index = new UpToDateIndex(stateDirectory, fileSet);
+        try {
+            Map<String, String> includedFiles = index.load();
+            if (includedFiles != null) {
+                getLog().debug("Using the index " + index.getFile() + " of " + fileSet.getDirectory());
+                long start = System.nanoTime();
                 // Treat a file set that yields no files as intrinsically out of date.
-                upToDate = !includedFiles.isEmpty();
-
-                upToDate &= includedFiles.entrySet().parallelStream().allMatch(entry -> {
-                    // If targetFile is out of date WRT srcFile, note the fact and stop processing.
-                    File srcFile = getFile(fileSet, false, entry.getKey());
-                    File targetFile = getFile(fileSet, true, entry.getValue());
-                    boolean isUpToDate = isUpToDate(srcFile, targetFile);
-
-                    if (getLog().isDebugEnabled()) {
-                        try {
-                            StringBuilder msg = new StringBuilder(targetFile.getCanonicalPath());
-                            if (!targetFile.exists()) {
-                                msg.append(" (nonexistent)");
-                            }
-                            msg.append("\n\tis ")
-                                    .append(isUpToDate ? "up to date" : "out of date")
-                                    .append(" with respect to \n\t")
-                                    .append(srcFile.getCanonicalPath());
-                            if (!srcFile.exists()) {
-                                msg.append(" (nonexistent)");
-                            }
-
-                            getLog().debug(msg);
-                        } catch (IOException e) {
-                            // Just a log entry so not fatal.
-                        }
+                evaluation.upToDate = !includedFiles.isEmpty()
+                        && executor.allMatch(
+                                new ArrayList<>(includedFiles.entrySet()),
+                                entry -> evaluation.check.isUpToDate(entry.getKey(), entry.getValue())
+                                        || !evaluation.check.isDecided())
+                        && evaluation.check.isUpToDate();
+                evaluation.walkNanos = System.nanoTime() - start;
+                evaluation.indexed = true;
+                evaluation.endedEarly = evaluation.check.getCompared() < includedFiles.size();
+                evaluation.includedFiles = includedFiles;
+                return true;
+            }
+            evaluation.index = index;
+            evaluation.snapshot = index.snapshot();
+            // Subdirectories may be walked in parallel.
+            evaluation.includedFiles = Collections.synchronizedMap(new LinkedHashMap<>());
+        } catch (IOException e) {
+            getLog().warn("Cannot read the index " + index.getFile() + ": " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Walks the file sets and compares each included file with its target as it is found, ending the walk of a file
+     * set at its first target that is out of date. File sets with the same directory are walked together, and
+     * directories which do not overlap are walked in parallel.
+     */
+    private void scan(List<Evaluation> evaluations, CheckExecutor executor) throws InterruptedException {
+        Map<String, List<Evaluation>> groups = new LinkedHashMap<>();
+        for (Evaluation evaluation : evaluations) {
+            FileSetScanner scanner = evaluation.scanner;
+            groups.computeIfAbsent(scanner.getBaseDir() + "|" + scanner.isFollowSymlinks(), key -> new ArrayList<>())
+                    .add(evaluation);
+        }
+
+        // Walks of nested directories would visit the same files, so they are done one after the other.
+        List<List<List<Evaluation>>> clusters = new ArrayList<>();
+        for (List<Evaluation> group : groups.values()) {
+            Path baseDir = group.get(0).scanner.getBaseDir();
+            List<List<Evaluation>> cluster = null;
+            for (Iterator<List<List<Evaluation>>> it = clusters.iterator(); it.hasNext(); ) {
+                List<List<Evaluation>> candidate = it.next();
+                if (overlaps(candidate, baseDir)) {
+                    if (cluster == null) {
+                        cluster = candidate;
+                    } else {
+                        cluster.addAll(candidate);
+                        it.remove();
                     }
+                }
+            }
+            if (cluster == null) {
+                cluster = new ArrayList<>();
+                clusters.add(cluster);
+            }
+            cluster.add(group);
+        }
+
+        executor.forEach(clusters, cluster -> {
+            for (List<Evaluation> group : cluster) {
+                scanGroup(group, executor);
+            }
+        });
+    }
 
-                    return isUpToDate;
-                });
-            } catch (MapperException e) {
-                throw new MojoExecutionException("", e);
+    private static boolean overlaps(List<List<Evaluation>> cluster, Path baseDir) {
+        for (List<Evaluation> group : cluster) {
+            Path other = group.get(0).scanner.getBaseDir();
+            if (other.startsWith(baseDir) || baseDir.startsWith(other)) {
+                return true;
             }
         }
+        return false;
+    }
+
+    private void scanGroup(List<Evaluation> group, CheckExecutor executor) {
+        List<FileSetScanner> scanners = new ArrayList<>();
+        List<FileSetScanner.Visitor> visitors = new ArrayList<>();
+        for (Evaluation evaluation : group) {
+            scanners.add(evaluation.scanner);
+            visitors.add(new FileSetScanner.Visitor() {
+                @Override
+                public boolean visit(String source, BasicFileAttributes attrs, String target) {
+                    if (evaluation.includedFiles != null) {
+                        evaluation.includedFiles.put(source, target);
+                    }
+                    // If the target is out of date WRT the source, note the fact and stop the walk once that is
+                    // decided.
+                    return evaluation.check.isUpToDate(source, attrs, target) || !evaluation.check.isDecided();
+                }
+
+                @Override
+                public void visitDirectory(String name, BasicFileAttributes attrs) {
+                    // The index only needs to watch the directories the scan looks into.
+                    if (evaluation.snapshot != null) {
+                        evaluation.snapshot.add(name, attrs);
+                    }
+                }
+            });
+        }
+        boolean[] completed;
+        long start = System.nanoTime();
+        try {
+            completed = FileSetScanner.scan(scanners, visitors, executor, executor.getParallelism());
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                    "Cannot scan " + group.get(0).config.getFileSet().getDirectory() + ": " + e.getMessage(), e);
+        }
+        long walkNanos = System.nanoTime() - start;
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).walkNanos = walkNanos;
+            group.get(i).endedEarly = !completed[i];
+            // Treat a file set that yields no files as intrinsically out of date.
+            group.get(i).upToDate = completed[i]
+                    && group.get(i).check.getCompared() > 0
+                    && group.get(i).check.isUpToDate();
+        }
+    }
 
-        // Set the property to the appropriate value, depending on whether target files are up to date WRT source files.
-        if (upToDate) {
-            defineProperty(config.getName(), config.getValue().trim());
-        } else if (!StringUtils.isBlank(config.getElse())) {
-            defineProperty(config.getName(), config.getElse().trim());
+    private void writeReport(List<Evaluation> evaluations) {
+        UpToDateReport upToDateReport = new UpToDateReport();
+        for (Evaluation evaluation : evaluations) {
+            if (evaluation.check != null) {
+                upToDateReport.add(
+                        evaluation.config.getName(),
+                        evaluation.config.getFileSet().getDirectory(),
+                        evaluation.upToDate,
+                        evaluation.indexed,
+                        evaluation.endedEarly,
+                        evaluation.walkNanos,
+                        evaluation.check);
+            }
+        }
+        try {
+            upToDateReport.write(report);
+        } catch (IOException e) {
+            getLog().warn("Cannot write the report " + report + ": " + e.getMessage());
         }
     }
 
-    private File getFile(FileSet fileSet, boolean useOutputDirectory, String path) {
-        String baseDir = useOutputDirectory && !StringUtils.isBlank(fileSet.getOutputDirectory())
-                ? fileSet.getOutputDirectory()
-                : fileSet.getDirectory();
-        return path == null ? null : new File(baseDir, path);
+    private ContentDigests loadDigests(FileSet fileSet) throws MojoExecutionException {
+        File file = new File(stateDirectory, UpToDateIndex.key(fileSet) + ".digests");
+        try {
+            return ContentDigests.load(file);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot read the digests " + file, e);
+        }
     }
 
-    private boolean isUpToDate(File srcFile, File targetFile) {
-        return srcFile != null
-                && srcFile.exists()
-                && (targetFile == null || srcFile.lastModified() <= targetFile.lastModified());
+    /**
+     * The state of the evaluation of a single setting.
+     */
+    private static final class Evaluation {
+        private final UpToDatePropertySetting config;
+
+        private UpToDateCheck check;
+
+        private FileSetScanner scanner;
+
+        private UpToDateIndex index;
+
+        private UpToDateIndex.Snapshot snapshot;
+
+        private Map<String, String> includedFiles;
+
+        private FileSetWatcher watcher;
+
+        private boolean indexed;
+
+        private boolean watched;
+
+        private boolean endedEarly;
+
+        private long walkNanos;
+
+        /**
+         * A setting without a file set is up to date.
+         */
+        private boolean upToDate = true;
+
+        private Evaluation(UpToDatePropertySetting config) {
+            this.config = config;
+        }
     }
 }
@@ -0,0 +1,189 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Runs the file system bound work of the up-to-date checks with a bounded number of concurrent tasks, on virtual
+ * threads when the JVM has them and on a dedicated thread pool otherwise, rather than on the common
+ * {@link java.util.concurrent.ForkJoinPool}.
+ *
+ * @since 3.6.2
+ */
+final class CheckExecutor implements Executor, AutoCloseable {
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final ExecutorService executor;
+
+    private final int parallelism;
+
+    private final boolean virtual;
+
+    private CheckExecutor(ExecutorService executor, int parallelism, boolean virtual) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.virtual = virtual;
+    }
+
+    /**
+     * Creates an executor.
+     *
+     * @param parallelism the maximum number of concurrent tasks, or <code>0</code> for the number of processors.
+     * @return the executor.
+     */
+    static CheckExecutor create(int parallelism) {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        ExecutorService virtualExecutor = newVirtualThreadPerTaskExecutor();
+        if (virtualExecutor != null) {
+            return new CheckExecutor(virtualExecutor, parallelism, true);
+        }
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "build-helper-uptodate-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new CheckExecutor(Executors.newFixedThreadPool(parallelism, threadFactory), parallelism, false);
+    }
+
+    /**
+     * Looks up <code>Executors.newVirtualThreadPerTaskExecutor()</code>, which is only available from Java 21.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService)
+                    Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    int getParallelism() {
+        return parallelism;
+    }
+
+    boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Tests whether all items match a predicate, stopping at the first one that does not.
+     *
+     * @param items the items to test.
+     * @param predicate the predicate, which may be called from several threads at once.
+     * @return <code>true</code> if all items match.
+     * @throws InterruptedException if interrupted while waiting for the tasks.
+     */
+    <T> boolean allMatch(List<T> items, Predicate<? super T> predicate) throws InterruptedException {
+        AtomicBoolean mismatched = new AtomicBoolean();
+        run(
+                items,
+                item -> {
+                    if (!predicate.test(item)) {
+                        mismatched.set(true);
+                    }
+                },
+                mismatched);
+        return !mismatched.get();
+    }
+
+    /**
+     * Performs an action for each item.
+     *
+     * @param items the items.
+     * @param action the action, which may be called from several threads at once.
+     * @throws InterruptedException if interrupted while waiting for the tasks.
+     */
+    <T> void forEach(List<T> items, Consumer<? super T> action) throws InterruptedException {
+        run(items, action, new AtomicBoolean());
+    }
+
+    /**
+     * Hands the items to at most <code>parallelism</code> tasks, which each take the next item until there are no more
+     * or <code>stopped</code> is set.
+     */
+    private <T> void run(List<T> items, Consumer<? super T> action, AtomicBoolean stopped) throws InterruptedException {
+        if (items.size() == 1) {
+            action.accept(items.get(0));
+            return;
+        }
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < Math.min(parallelism, items.size()); i++) {
+            futures.add(executor.submit(() -> {
+                for (int index = next.getAndIncrement();
+                        index < items.size() && !stopped.get();
+                        index = next.getAndIncrement()) {
+                    action.accept(items.get(index));
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            stopped.set(true);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            // Only does anything if a task failed or the wait was interrupted.
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Runs a task on the underlying executor, without bounding the number of concurrent tasks.
+     */
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
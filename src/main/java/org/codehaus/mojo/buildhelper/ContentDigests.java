@@ -0,0 +1,203 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Sidecar manifest of the content digests of the source files of a file set, as they were when the targets were last
+ * found up to date.
+ * <p>
+ * Digests are reused as long as the size and modification time of a file are unchanged, so only new or touched files
+ * are read.
+ *
+ * @since 3.6.2
+ */
+final class ContentDigests {
+    private static final int MAGIC = 0x42484344;
+
+    private static final int VERSION = 1;
+
+    /**
+     * Files smaller than this are read into a buffer: a mapping stays until the garbage collector releases it, which
+     * only pays off for large files.
+     */
+    private static final long MAP_THRESHOLD = 16L << 20;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Large files are mapped in chunks of this size, so that files larger than 2 GB can be digested.
+     */
+    private static final long CHUNK_SIZE = 1L << 30;
+
+    private final File file;
+
+    private final Map<String, Entry> recorded;
+
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+
+    private volatile boolean modified;
+
+    private ContentDigests(File file, Map<String, Entry> recorded) {
+        this.file = file;
+        this.recorded = recorded;
+    }
+
+    /**
+     * Loads a manifest.
+     *
+     * @param file the manifest file, which need not exist.
+     * @return the manifest.
+     * @throws IOException if the manifest exists but cannot be read.
+     */
+    static ContentDigests load(File file) throws IOException {
+        if (!file.isFile()) {
+            return new ContentDigests(file, Collections.emptyMap());
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return new ContentDigests(file, Collections.emptyMap());
+            }
+            int count = in.readInt();
+            Map<String, Entry> recorded = new HashMap<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                recorded.put(in.readUTF(), new Entry(in.readLong(), in.readLong(), in.readLong()));
+            }
+            return new ContentDigests(file, recorded);
+        }
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Digests a source file and compares the digest with the recorded one. May be called concurrently.
+     *
+     * @param path the path of the source file relative to the file set's directory.
+     * @param source the source file.
+     * @param size the size of the source file.
+     * @param lastModified the modification time of the source file.
+     * @return <code>true</code> if the content of the file is the same as recorded.
+     * @throws IOException if the file cannot be read.
+     */
+    boolean isUnchanged(String path, File source, long size, long lastModified) throws IOException {
+        Entry previous = recorded.get(path);
+        Entry entry;
+        if (previous != null && previous.size == size && previous.lastModified == lastModified) {
+            entry = previous;
+        } else {
+            entry = new Entry(size, lastModified, digest(source, size));
+            modified = true;
+        }
+        current.put(path, entry);
+        return previous != null && previous.size == size && previous.crc == entry.crc;
+    }
+
+    /**
+     * Replaces the recorded digests with the ones computed since the manifest was loaded, if they differ.
+     *
+     * @throws IOException if the manifest cannot be written.
+     */
+    void save() throws IOException {
+        if (!modified && current.keySet().equals(recorded.keySet())) {
+            return;
+        }
+        File parent = file.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory " + parent);
+        }
+        File temp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            try (DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(current.size());
+                for (Map.Entry<String, Entry> entry : current.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue().size);
+                    out.writeLong(entry.getValue().lastModified);
+                    out.writeLong(entry.getValue().crc);
+                }
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    private static long digest(File source, long size) throws IOException {
+        CRC32 crc = new CRC32();
+        if (size < MAP_THRESHOLD) {
+            try (InputStream in = Files.newInputStream(source.toPath())) {
+                byte[] buffer = new byte[(int) Math.max(1L, Math.min(size, BUFFER_SIZE))];
+                for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                    crc.update(buffer, 0, read);
+                }
+            }
+            return crc.getValue();
+        }
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            for (long position = 0; position < size; position += CHUNK_SIZE) {
+                MappedByteBuffer buffer =
+                        channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_SIZE, size - position));
+                crc.update(buffer);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static final class Entry {
+        private final long size;
+
+        private final long lastModified;
+
+        private final long crc;
+
+        private Entry(long size, long lastModified, long crc) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.crc = crc;
+        }
+    }
+}
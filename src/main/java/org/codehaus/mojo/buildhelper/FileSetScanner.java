@@ -0,0 +1,497 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.maven.shared.model.fileset.FileSet;
+import org.apache.maven.shared.model.fileset.mappers.FileNameMapper;
+import org.apache.maven.shared.model.fileset.mappers.MapperException;
+import org.apache.maven.shared.model.fileset.mappers.MapperUtil;
+import org.codehaus.plexus.util.AbstractScanner;
+import org.codehaus.plexus.util.MatchPattern;
+import org.codehaus.plexus.util.MatchPatterns;
+
+/**
+ * Walks the files included by a {@link FileSet}, handing each one to a visitor as soon as it is found.
+ * <p>
+ * Includes, excludes, default excludes, symbolic links and mappers are handled as by
+ * {@link org.apache.maven.shared.model.fileset.util.FileSetManager#mapIncludedFiles(FileSet)}, but the tree is not
+ * collected first, so that a visitor can end the walk early. The patterns are compiled once, each path is tokenized
+ * once for all of them, directories which are excluded as a whole are not descended into, and subdirectories may be
+ * listed in parallel.
+ *
+ * @since 3.6.2
+ */
+final class FileSetScanner {
+    /**
+     * Receives the included files.
+     */
+    interface Visitor {
+        /**
+         * Visits an included file. May be called from several threads at once if the walk is parallel.
+         *
+         * @param source the path of the file relative to the file set's directory.
+         * @param attrs the attributes of the file.
+         * @param target the mapped path of the file.
+         * @return <code>false</code> to end the walk.
+         */
+        boolean visit(String source, BasicFileAttributes attrs, String target);
+
+        /**
+         * Visits a directory the file set needs the walk to look into, before it is listed. May be called from several
+         * threads at once if the walk is parallel.
+         *
+         * @param name the path of the directory relative to the file set's directory, empty for that directory.
+         * @param attrs the attributes of the directory.
+         */
+        default void visitDirectory(String name, BasicFileAttributes attrs) {}
+    }
+
+    private static final String ALL_BELOW = File.separator + "**";
+
+    private final File baseDir;
+
+    private final boolean followSymlinks;
+
+    private final MatchPatterns includes;
+
+    private final MatchPatterns excludes;
+
+    /**
+     * The excludes ending with <code>/**</code>, without that suffix: directories matching one of them have all their
+     * content excluded.
+     */
+    private final MatchPatterns excludedDirectories;
+
+    private final FileNameMapper mapper;
+
+    FileSetScanner(FileSet fileSet) throws MapperException {
+        this.baseDir = new File(fileSet.getDirectory());
+        this.followSymlinks = fileSet.isFollowSymlinks();
+
+        List<String> includes = new ArrayList<>();
+        for (String include : fileSet.getIncludes()) {
+            includes.add(normalizePattern(include));
+        }
+        if (includes.isEmpty()) {
+            includes.add("**");
+        }
+        this.includes = MatchPatterns.from(includes);
+
+        List<String> excludes = new ArrayList<>();
+        for (String exclude : fileSet.getExcludes()) {
+            excludes.add(normalizePattern(exclude));
+        }
+        if (fileSet.isUseDefaultExcludes()) {
+            for (String exclude : AbstractScanner.DEFAULTEXCLUDES) {
+                excludes.add(normalizePattern(exclude));
+            }
+        }
+        this.excludes = MatchPatterns.from(excludes);
+
+        List<String> excludedDirectories = new ArrayList<>();
+        for (String exclude : excludes) {
+            if (!exclude.startsWith("%regex[")
+                    && exclude.endsWith(ALL_BELOW)
+                    && exclude.length() > ALL_BELOW.length()) {
+                excludedDirectories.add(exclude.substring(0, exclude.length() - ALL_BELOW.length()));
+            }
+        }
+        this.excludedDirectories = MatchPatterns.from(excludedDirectories);
+
+        this.mapper = MapperUtil.getFileNameMapper(fileSet.getMapper());
+    }
+
+    /**
+     * Returns the directory the file set is walked from. File sets with the same directory and symbolic link handling
+     * can be walked together.
+     */
+    Path getBaseDir() {
+        return baseDir.getAbsoluteFile().toPath().normalize();
+    }
+
+    boolean isFollowSymlinks() {
+        return followSymlinks;
+    }
+
+    /**
+     * Walks the file set.
+     *
+     * @param visitor the visitor to hand the included files to.
+     * @return <code>true</code> if all included files were visited, <code>false</code> if the visitor ended the walk.
+     * @throws IOException if the walk fails.
+     */
+    boolean scan(Visitor visitor) throws IOException {
+        return scan(Collections.singletonList(this), Collections.singletonList(visitor), null, 1)[0];
+    }
+
+    /**
+     * Walks several file sets sharing the same directory and symbolic link handling in a single pass. Each file is
+     * handed to the visitor of every file set including it, until that visitor ends its part of the walk.
+     *
+     * @param scanners the file sets to walk.
+     * @param visitors the visitors to hand the files included by the respective file set to.
+     * @param executor the executor to list subdirectories on, or <code>null</code> to walk on the calling thread only.
+     * @param parallelism the maximum number of threads walking at the same time, including the calling one.
+     * @return for each file set, <code>true</code> if all its files were visited, <code>false</code> if its visitor
+     *         ended the walk.
+     * @throws IOException if the walk fails.
+     */
+    static boolean[] scan(List<FileSetScanner> scanners, List<Visitor> visitors, Executor executor, int parallelism)
+            throws IOException {
+        File baseDir = scanners.get(0).baseDir;
+        boolean followSymlinks = scanners.get(0).followSymlinks;
+        Walk walk = new Walk(scanners, visitors, followSymlinks, executor, parallelism);
+        Path base = baseDir.toPath();
+        // The DirectoryScanner does not look into symbolic links to directories unless told to follow them.
+        if (baseDir.isDirectory() && (followSymlinks || !Files.isSymbolicLink(base))) {
+            BasicFileAttributes attrs = Files.readAttributes(base, BasicFileAttributes.class);
+            for (Visitor visitor : visitors) {
+                visitor.visitDirectory("", attrs);
+            }
+            walk.run(new Directory(base, "", null, walk.directoryKey(base, attrs)));
+        }
+        boolean[] completed = new boolean[scanners.size()];
+        for (int i = 0; i < completed.length; i++) {
+            completed[i] = walk.active[i].get();
+        }
+        return completed;
+    }
+
+    /**
+     * Tells whether the file set includes a file found by other means than a walk.
+     *
+     * @param name the path of the file relative to the directory of the file set.
+     * @return <code>true</code> if the file set includes the file.
+     */
+    boolean isIncluded(String name) {
+        return isIncluded(name, MatchPattern.tokenizePathToString(name, File.separator));
+    }
+
+    /**
+     * Maps an included file to its target.
+     *
+     * @param name the path of the file relative to the directory of the file set.
+     * @return the path of the target, or <code>null</code> if the file has none.
+     */
+    String mapFileName(String name) {
+        return mapper != null ? mapper.mapFileName(name) : name;
+    }
+
+    private boolean isIncluded(String name, String[] tokens) {
+        return includes.matches(name, tokens, true) && !excludes.matches(name, tokens, true);
+    }
+
+    /**
+     * Tells whether the walk needs to look into a directory: it may hold included files and its content is not
+     * excluded as a whole.
+     */
+    boolean isDescended(String name) {
+        return (includes.matches(name, true) || includes.matchesPatternStart(name, true))
+                && !excludedDirectories.matches(name, true);
+    }
+
+    /**
+     * Normalizes a pattern as {@link AbstractScanner} does: separators are made platform specific and a trailing
+     * separator stands for everything below the directory.
+     */
+    private static String normalizePattern(String pattern) {
+        pattern = pattern.trim();
+        if (pattern.startsWith("%regex[")) {
+            return pattern;
+        }
+        pattern = pattern.replace('/', File.separatorChar).replace('\\', File.separatorChar);
+        if (pattern.endsWith(File.separator)) {
+            pattern += "**";
+        }
+        return pattern;
+    }
+
+    /**
+     * A directory to list.
+     */
+    private static final class Directory {
+        private final Path path;
+
+        private final String name;
+
+        private final Directory parent;
+
+        /**
+         * Identifies the directory when following symbolic links, to detect loops.
+         */
+        private final Object key;
+
+        private Directory(Path path, String name, Directory parent, Object key) {
+            this.path = path;
+            this.name = name;
+            this.parent = parent;
+            this.key = key;
+        }
+    }
+
+    /**
+     * The state of a walk. Directories are queued and listed by the calling thread, which is joined by helper tasks on
+     * the executor while there is more than one directory waiting. The calling thread does not depend on the helpers
+     * to make progress, so they may share a bounded executor with it.
+     */
+    private static final class Walk {
+        private final List<FileSetScanner> scanners;
+
+        private final List<Visitor> visitors;
+
+        private final boolean followSymlinks;
+
+        private final Executor executor;
+
+        private final int parallelism;
+
+        private final AtomicBoolean[] active;
+
+        private final AtomicInteger remaining;
+
+        private final Deque<Directory> queue = new ConcurrentLinkedDeque<>();
+
+        /**
+         * The number of directories queued or being listed.
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private final AtomicInteger helpers = new AtomicInteger();
+
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        private final Object monitor = new Object();
+
+        private volatile boolean stopped;
+
+        private Walk(
+                List<FileSetScanner> scanners,
+                List<Visitor> visitors,
+                boolean followSymlinks,
+                Executor executor,
+                int parallelism) {
+            this.scanners = scanners;
+            this.visitors = visitors;
+            this.followSymlinks = followSymlinks;
+            this.executor = executor;
+            this.parallelism = parallelism;
+            this.active = new AtomicBoolean[scanners.size()];
+            for (int i = 0; i < active.length; i++) {
+                active[i] = new AtomicBoolean(true);
+            }
+            this.remaining = new AtomicInteger(scanners.size());
+        }
+
+        private void run(Directory root) throws IOException {
+            enqueue(root);
+            boolean interrupted = false;
+            // Wait for the helpers even after the walk was stopped, so that no visitor is called once this returns.
+            while (pending.get() != 0) {
+                work();
+                synchronized (monitor) {
+                    if (pending.get() != 0 && queue.isEmpty()) {
+                        try {
+                            monitor.wait(10L);
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                            stopped = true;
+                        }
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while walking " + root.path);
+            }
+            Throwable t = failure.get();
+            if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            }
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+        }
+
+        private void help() {
+            try {
+                work();
+            } finally {
+                helpers.decrementAndGet();
+            }
+        }
+
+        private void work() {
+            for (Directory dir = queue.pollLast(); dir != null; dir = queue.pollLast()) {
+                try {
+                    if (!stopped) {
+                        list(dir);
+                    }
+                } catch (RuntimeException | Error e) {
+                    failure.compareAndSet(null, e);
+                    stopped = true;
+                } finally {
+                    if (pending.decrementAndGet() == 0) {
+                        synchronized (monitor) {
+                            monitor.notifyAll();
+                        }
+                    }
+                }
+            }
+        }
+
+        private void enqueue(Directory dir) {
+            pending.incrementAndGet();
+            queue.addLast(dir);
+            if (executor != null && queue.size() > 1) {
+                if (helpers.incrementAndGet() < parallelism) {
+                    executor.execute(this::help);
+                } else {
+                    helpers.decrementAndGet();
+                }
+            }
+            synchronized (monitor) {
+                monitor.notifyAll();
+            }
+        }
+
+        private void list(Directory dir) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir.path)) {
+                for (Path child : stream) {
+                    if (stopped) {
+                        return;
+                    }
+                    BasicFileAttributes attrs = readAttributes(child);
+                    if (attrs == null) {
+                        continue;
+                    }
+                    String fileName = child.getFileName().toString();
+                    String name = dir.name.isEmpty() ? fileName : dir.name + File.separator + fileName;
+                    if (attrs.isDirectory()) {
+                        if (descend(name, attrs)) {
+                            Object key = directoryKey(child, attrs);
+                            if (!isLoop(dir, key)) {
+                                enqueue(new Directory(child, name, dir, key));
+                            }
+                        }
+                    } else if (attrs.isRegularFile()) {
+                        visit(name, attrs);
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                // Unreadable directories are skipped, as by the DirectoryScanner.
+            }
+        }
+
+        /**
+         * Reads the attributes of a directory entry. Without following symbolic links, the ones to files are
+         * included but the ones to directories are not looked into, as by the DirectoryScanner.
+         *
+         * @return the attributes, or <code>null</code> if the entry is to be skipped.
+         */
+        private BasicFileAttributes readAttributes(Path path) {
+            try {
+                if (followSymlinks) {
+                    return Files.readAttributes(path, BasicFileAttributes.class);
+                }
+                BasicFileAttributes attrs =
+                        Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                if (attrs.isSymbolicLink()) {
+                    attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                    return attrs.isRegularFile() ? attrs : null;
+                }
+                return attrs;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Tells whether any file set still walked needs to look into a directory, and hands it to the visitors of
+         * those that do.
+         */
+        private boolean descend(String name, BasicFileAttributes attrs) {
+            boolean descended = false;
+            for (int i = 0; i < active.length; i++) {
+                if (active[i].get() && scanners.get(i).isDescended(name)) {
+                    visitors.get(i).visitDirectory(name, attrs);
+                    descended = true;
+                }
+            }
+            return descended;
+        }
+
+        private Object directoryKey(Path path, BasicFileAttributes attrs) throws IOException {
+            if (!followSymlinks) {
+                return null;
+            }
+            return attrs.fileKey() != null ? attrs.fileKey() : path.toRealPath();
+        }
+
+        private boolean isLoop(Directory parent, Object key) {
+            if (key == null) {
+                return false;
+            }
+            for (Directory ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+                if (key.equals(ancestor.key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void visit(String name, BasicFileAttributes attrs) {
+            String[] tokens = MatchPattern.tokenizePathToString(name, File.separator);
+            for (int i = 0; i < active.length; i++) {
+                FileSetScanner scanner = scanners.get(i);
+                if (active[i].get() && scanner.isIncluded(name, tokens)) {
+                    if (!visitors.get(i).visit(name, attrs, scanner.mapFileName(name))
+                            && active[i].compareAndSet(true, false)
+                            && remaining.decrementAndGet() == 0) {
+                        stopped = true;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Watches the directories of a file set between builds of a long-lived JVM, such as the Maven daemon, so that the
+ * outcome of the previous check can be reused as long as nothing changed.
+ * <p>
+ * The watch service delivers events from a background thread, so a change made just before a build may not have been
+ * reported yet. Before the changes are collected, a marker file is therefore created in a watched directory of its own,
+ * and only once its event arrives are the events queued before it known to be complete. Nothing else is created in
+ * that directory, so that its key is never queued ahead of the changes made before the marker.
+ * <p>
+ * The watchers kept for later builds are closed when the JVM exits, so that a plain Maven build does not leave the
+ * directories of its marker files behind.
+ *
+ * @since 3.6.2
+ */
+final class FileSetWatcher implements Closeable {
+    /**
+     * The number of file sets watched at the same time. Each watcher holds a watch service, so the least recently used
+     * ones are closed beyond that.
+     */
+    private static final int CAPACITY = 64;
+
+    /**
+     * The number of milliseconds to wait for the event of the marker file.
+     */
+    private static final long SYNC_TIMEOUT = 2000L;
+
+    /**
+     * The watchers of the most recently checked file sets, kept for as long as the plugin's class loader lives.
+     */
+    private static final Map<String, FileSetWatcher> WATCHERS =
+            new LinkedHashMap<String, FileSetWatcher>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, FileSetWatcher> eldest) {
+                    if (size() > CAPACITY) {
+                        eldest.getValue().closeQuietly();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+
+    private static boolean closedOnExit;
+
+    private final WatchService service;
+
+    private final Path base;
+
+    private final Path outputBase;
+
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+
+    private final Set<Path> registered = new HashSet<>();
+
+    private final Predicate<String> descended;
+
+    private final Collection<Path> ignored;
+
+    private Path markerDirectory;
+
+    private WatchKey markerKey;
+
+    /**
+     * Set once changes required a full check, after which the events of this watcher are no longer consumed in order.
+     */
+    private boolean lost;
+
+    private Map<String, String> includedFiles;
+
+    private boolean upToDate;
+
+    private FileSetWatcher(
+            WatchService service, Path base, Path outputBase, Predicate<String> descended, Collection<Path> ignored) {
+        this.service = service;
+        this.base = base;
+        this.outputBase = outputBase;
+        this.descended = descended;
+        this.ignored = ignored;
+    }
+
+    /**
+     * Watches the directories of a file set.
+     *
+     * @param base the directory of the file set.
+     * @param outputBase the directory of the targets, or <code>null</code> if they are in the tree of the file set.
+     * @param descended tells which subdirectories of the file set, given by relative path, can hold included files.
+     * @param ignored the files and directories whose changes do not matter, such as the state of the checks.
+     * @param stateDirectory the directory to create the directory of the marker files in, which should be among the
+     *     ignored ones.
+     * @return the watcher, or <code>null</code> if the file system cannot report changes by itself.
+     * @throws IOException if the directories cannot be watched.
+     */
+    static FileSetWatcher create(
+            Path base, Path outputBase, Predicate<String> descended, Collection<Path> ignored, Path stateDirectory)
+            throws IOException {
+        WatchService service = FileSystems.getDefault().newWatchService();
+        // A polling watch service only notices changes after seconds, so it would report a stale outcome.
+        if (service.getClass().getName().contains("Polling")) {
+            service.close();
+            return null;
+        }
+        FileSetWatcher watcher = new FileSetWatcher(service, base, outputBase, descended, ignored);
+        try {
+            Files.createDirectories(stateDirectory);
+            watcher.markerDirectory = Files.createTempDirectory(stateDirectory, "watch");
+            watcher.markerKey = watcher.markerDirectory.register(service, StandardWatchEventKinds.ENTRY_CREATE);
+            if (outputBase != null) {
+                watcher.register(base, descended);
+                watcher.register(outputBase, name -> true);
+            } else {
+                // The targets may be anywhere in the tree.
+                watcher.register(base, name -> true);
+            }
+        } catch (IOException | RuntimeException e) {
+            watcher.close();
+            throw e;
+        }
+        return watcher;
+    }
+
+    /**
+     * Returns the watcher kept for a file set, unless its directory no longer exists.
+     */
+    static FileSetWatcher get(String key) {
+        synchronized (WATCHERS) {
+            FileSetWatcher watcher = WATCHERS.get(key);
+            if (watcher != null && !Files.isDirectory(watcher.base)) {
+                WATCHERS.remove(key);
+                watcher.closeQuietly();
+                return null;
+            }
+            return watcher;
+        }
+    }
+
+    /**
+     * Keeps a watcher for the next build, closing the one it replaces and those whose directory no longer exists.
+     */
+    static void put(String key, FileSetWatcher watcher) {
+        synchronized (WATCHERS) {
+            if (!closedOnExit) {
+                Runtime.getRuntime().addShutdownHook(new Thread(FileSetWatcher::closeAll, "build-helper-watchers"));
+                closedOnExit = true;
+            }
+            for (Iterator<FileSetWatcher> it = WATCHERS.values().iterator(); it.hasNext(); ) {
+                FileSetWatcher other = it.next();
+                if (other != watcher && !Files.isDirectory(other.base)) {
+                    it.remove();
+                    other.closeQuietly();
+                }
+            }
+            FileSetWatcher previous = watcher != null ? WATCHERS.put(key, watcher) : WATCHERS.remove(key);
+            if (previous != null && previous != watcher) {
+                previous.closeQuietly();
+            }
+        }
+    }
+
+    /**
+     * Closes all the watchers kept for later builds.
+     */
+    static void closeAll() {
+        synchronized (WATCHERS) {
+            for (FileSetWatcher watcher : WATCHERS.values()) {
+                watcher.closeQuietly();
+            }
+            WATCHERS.clear();
+        }
+    }
+
+    Map<String, String> getIncludedFiles() {
+        return includedFiles;
+    }
+
+    boolean isUpToDate() {
+        return upToDate;
+    }
+
+    /**
+     * Records the outcome of a check.
+     *
+     * @param includedFiles the mapping of all included files, or <code>null</code> if the check ended early.
+     * @param upToDate whether the targets were up to date.
+     */
+    void setOutcome(Map<String, String> includedFiles, boolean upToDate) {
+        this.includedFiles = includedFiles;
+        this.upToDate = upToDate;
+    }
+
+    /**
+     * Tells whether the outcome can be updated by rechecking only the directories which changed: the outcome covered
+     * all files and the targets cannot have changed without a full check.
+     */
+    boolean isIncremental() {
+        return includedFiles != null && upToDate && outputBase != null;
+    }
+
+    /**
+     * Collects the changes made until now.
+     *
+     * @return the paths relative to the file set's directory of the directories whose entries changed, or
+     *         <code>null</code> if the changes require a full check: a directory was added or removed, a target
+     *         changed, events were lost or they could not be shown to be complete.
+     * @throws InterruptedException if interrupted while waiting for the events.
+     */
+    Set<Path> poll() throws InterruptedException {
+        Set<Path> changed = lost ? null : sync();
+        lost = changed == null;
+        return changed;
+    }
+
+    /**
+     * Collects the events queued before those of a new marker file.
+     */
+    private Set<Path> sync() throws InterruptedException {
+        if (!markerKey.isValid()) {
+            return null;
+        }
+        for (WatchKey key : directories.keySet()) {
+            if (!key.isValid()) {
+                return null;
+            }
+        }
+        Path marker;
+        try {
+            marker = Files.createTempFile(markerDirectory, "watch", ".tmp");
+            Files.delete(marker);
+        } catch (IOException e) {
+            return null;
+        }
+        Set<Path> changed = new HashSet<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SYNC_TIMEOUT);
+        try {
+            while (true) {
+                WatchKey key = service.poll(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (key == null) {
+                    return null;
+                }
+                if (key == markerKey) {
+                    boolean synced = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            return null;
+                        }
+                        synced |= marker.getFileName().equals(event.context());
+                    }
+                    if (!key.reset()) {
+                        return null;
+                    }
+                    if (synced) {
+                        return changed.isEmpty() ? Collections.emptySet() : changed;
+                    }
+                } else if (!collect(key, changed)) {
+                    return null;
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Evicted by another module meanwhile.
+            return null;
+        }
+    }
+
+    /**
+     * Adds the directories changed according to the events of a key.
+     *
+     * @return <code>false</code> if the changes require a full check.
+     */
+    private boolean collect(WatchKey key, Set<Path> changed) {
+        Path dir = directories.get(key);
+        boolean incremental = dir != null;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                incremental = false;
+            } else if (isIgnored(dir.resolve((Path) event.context()))) {
+                continue;
+            } else if (outputBase == null || !dir.startsWith(base)) {
+                // A target changed, or the targets share the tree so that any change may affect other pairs.
+                incremental = false;
+            } else {
+                Path child = dir.resolve((Path) event.context());
+                String name = base.relativize(child).toString();
+                // A deleted directory is no longer one, but it was watched if it could hold included files.
+                if (event.kind() != StandardWatchEventKinds.ENTRY_MODIFY
+                        && (registered.contains(child) || Files.isDirectory(child) && descended.test(name))) {
+                    incremental = false;
+                }
+                changed.add(base.relativize(dir));
+            }
+        }
+        return key.reset() && incremental;
+    }
+
+    private boolean isIgnored(Path path) {
+        for (Path ignore : ignored) {
+            if (path.startsWith(ignore)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void register(Path root, Predicate<String> descended) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(root) && (!descended.test(root.relativize(dir).toString()) || isIgnored(dir))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                WatchKey key = dir.register(
+                        service,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                directories.put(key, dir);
+                registered.add(dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        service.close();
+        if (markerDirectory != null) {
+            Files.deleteIfExists(markerDirectory);
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            // the watcher is dropped anyway
+        }
+    }
+}
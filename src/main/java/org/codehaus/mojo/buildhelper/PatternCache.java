@@ -0,0 +1,119 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.maven.execution.MavenSession;
+import org.eclipse.aether.SessionData;
+
+/**
+ * A bounded cache of compiled patterns, keyed by regex and flags. The settings of the regex goals are usually
+ * inherited by all modules, so the cache is shared by all executions of a session, evicting the least recently used
+ * patterns once full.
+ *
+ * @since 3.6.2
+ */
+final class PatternCache {
+    /**
+     * The number of patterns kept per session.
+     */
+    static final int CAPACITY = 256;
+
+    private final Map<String, Pattern> patterns;
+
+    private long hits;
+
+    private long misses;
+
+    PatternCache(final int capacity) {
+        this.patterns = new LinkedHashMap<String, Pattern>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cache of the current session. The cache is keyed by the class itself, so that different versions of
+     * this plugin used in the same session do not share it.
+     *
+     * @param session the current session, or <code>null</code> outside of a build.
+     * @return the cache.
+     */
+    static PatternCache get(MavenSession session) {
+        if (session == null || session.getRepositorySession() == null) {
+            return new PatternCache(CAPACITY);
+        }
+        SessionData data = session.getRepositorySession().getData();
+        Object cache = data.get(PatternCache.class);
+        if (cache == null) {
+            data.set(PatternCache.class, null, new PatternCache(CAPACITY));
+            cache = data.get(PatternCache.class);
+        }
+        return (PatternCache) cache;
+    }
+
+    /**
+     * Returns the compiled form of a regex, compiling it on first use.
+     *
+     * @param regex the regex.
+     * @param flags the match flags, as given to {@link Pattern#compile(String, int)}.
+     * @return the pattern.
+     * @throws java.util.regex.PatternSyntaxException if the regex is invalid.
+     */
+    Pattern compile(String regex, int flags) {
+        String key = flags + ":" + regex;
+        synchronized (this) {
+            Pattern pattern = patterns.get(key);
+            if (pattern != null) {
+                hits++;
+                return pattern;
+            }
+            misses++;
+        }
+        // Compile outside of the lock, a pattern compiled twice by concurrent modules is harmless.
+        Pattern pattern = Pattern.compile(regex, flags);
+        synchronized (this) {
+            patterns.put(key, pattern);
+        }
+        return pattern;
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized int size() {
+        return patterns.size();
+    }
+}
@@ -0,0 +1,208 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.Random;
+
+/**
+ * A fixed size bit set covering the whole TCP port space, used to keep track of reserved port numbers without boxing
+ * them into collections.
+ *
+ * @since 3.6.2
+ */
+final class PortBitmap {
+    static final int PORT_COUNT = 65536;
+
+    private static final int WORD_SHIFT = 6;
+
+    private final long[] words;
+
+    PortBitmap() {
+        this.words = new long[PORT_COUNT >>> WORD_SHIFT];
+    }
+
+    private PortBitmap(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * @return an independent copy of this bitmap.
+     */
+    PortBitmap copy() {
+        return new PortBitmap(words.clone());
+    }
+
+    void set(int port) {
+        checkPort(port);
+        words[port >>> WORD_SHIFT] |= 1L << port;
+    }
+
+    void clear(int port) {
+        checkPort(port);
+        words[port >>> WORD_SHIFT] &= ~(1L << port);
+    }
+
+    boolean isSet(int port) {
+        checkPort(port);
+        return (words[port >>> WORD_SHIFT] & (1L << port)) != 0;
+    }
+
+    /**
+     * Adds every port set in the other bitmap to this one.
+     *
+     * @param other the bitmap to merge into this one.
+     */
+    void or(PortBitmap other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    /**
+     * @param from first port of the range, inclusive.
+     * @param to last port of the range, inclusive.
+     * @return the number of ports not set in the given range.
+     */
+    int countClear(int from, int to) {
+        checkRange(from, to);
+        int count = 0;
+        int word = from >>> WORD_SHIFT;
+        long bits = ~words[word] & (-1L << from);
+        int lastWord = to >>> WORD_SHIFT;
+        while (word < lastWord) {
+            count += Long.bitCount(bits);
+            bits = ~words[++word];
+        }
+        return count + Long.bitCount(bits & (-1L >>> (63 - (to & 63))));
+    }
+
+    /**
+     * @param from first port of the range, inclusive.
+     * @param to last port of the range, inclusive.
+     * @return the first port in the given range which is not set, or {@code -1} if there is none.
+     */
+    int nextClear(int from, int to) {
+        checkRange(from, to);
+        int word = from >>> WORD_SHIFT;
+        long bits = ~words[word] & (-1L << from);
+        int lastWord = to >>> WORD_SHIFT;
+        while (true) {
+            if (bits != 0) {
+                int port = (word << WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+                return port <= to ? port : -1;
+            }
+            if (++word > lastWord) {
+                return -1;
+            }
+            bits = ~words[word];
+        }
+    }
+
+    /**
+     * @param from first port of the range, inclusive.
+     * @param to last port of the range, inclusive.
+     * @return the first port in the given range which is set, or {@code -1} if there is none.
+     */
+    int nextSet(int from, int to) {
+        checkRange(from, to);
+        int word = from >>> WORD_SHIFT;
+        long bits = words[word] & (-1L << from);
+        int lastWord = to >>> WORD_SHIFT;
+        while (true) {
+            if (bits != 0) {
+                int port = (word << WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+                return port <= to ? port : -1;
+            }
+            if (++word > lastWord) {
+                return -1;
+            }
+            bits = words[word];
+        }
+    }
+
+    /**
+     * Finds the first run of consecutive ports which are not set in the given range.
+     *
+     * @param from first port of the range, inclusive.
+     * @param to last port of the range, inclusive.
+     * @param length the number of consecutive ports.
+     * @return the first port of the run, or {@code -1} if there is none.
+     */
+    int nextClearRun(int from, int to, int length) {
+        checkRange(from, to);
+        int start = nextClear(from, to);
+        while (start != -1 && start + length - 1 <= to) {
+            int set = nextSet(start, start + length - 1);
+            if (set == -1) {
+                return start;
+            }
+            start = set < to ? nextClear(set + 1, to) : -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Picks one of the ports not set in the given range, every candidate having the same probability.
+     *
+     * @param from first port of the range, inclusive.
+     * @param to last port of the range, inclusive.
+     * @param random the source of randomness.
+     * @return a port in the given range which is not set, or {@code -1} if there is none.
+     */
+    int randomClear(int from, int to, Random random) {
+        int available = countClear(from, to);
+        if (available == 0) {
+            return -1;
+        }
+        int skip = random.nextInt(available);
+        int word = from >>> WORD_SHIFT;
+        long bits = ~words[word] & (-1L << from);
+        while (true) {
+            int count = Long.bitCount(bits);
+            if (skip < count) {
+                for (; skip > 0; skip--) {
+                    bits &= bits - 1;
+                }
+                return (word << WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+            }
+            skip -= count;
+            bits = ~words[++word];
+        }
+    }
+
+    private static void checkRange(int from, int to) {
+        checkPort(from);
+        checkPort(to);
+        if (from > to) {
+            throw new IllegalArgumentException("Invalid port range " + from + " - " + to);
+        }
+    }
+
+    private static void checkPort(int port) {
+        if (port < 0 || port >= PORT_COUNT) {
+            throw new IllegalArgumentException("Invalid port number " + port);
+        }
+    }
+}
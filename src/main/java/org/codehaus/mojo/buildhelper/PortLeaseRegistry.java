@@ -0,0 +1,224 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A host wide registry of leased ports, kept in a memory mapped file so that several Maven processes running on the
+ * same machine do not hand out the same port. Every port owns a fixed slot holding the PID of the owning process, the
+ * build of that process which took the lease, and the expiry time of the lease. A long-lived process such as the Maven
+ * daemon runs several builds, so the leases it took in an earlier build do not hold in later ones. The whole file is
+ * locked with {@link FileChannel#lock()} while the registry is open, so instances should only be kept open for the
+ * duration of a reservation.
+ *
+ * @since 3.6.2
+ */
+final class PortLeaseRegistry implements Closeable {
+    private static final int MAGIC = 0x42484c32;
+
+    private static final int HEADER_SIZE = 16;
+
+    private static final int SLOT_SIZE = 24;
+
+    private static final int FILE_SIZE = HEADER_SIZE + PortBitmap.PORT_COUNT * SLOT_SIZE;
+
+    private static final long CURRENT_PID = currentPid();
+
+    private static final File PROC = new File("/proc");
+
+    private static final Method PROCESS_HANDLE_OF = processHandleMethod("of", long.class);
+
+    private static final Method PROCESS_HANDLE_IS_ALIVE = processHandleMethod("isAlive");
+
+    /**
+     * File locks are held on behalf of the whole JVM, so threads of the same build have to be serialized here.
+     */
+    private static final ReentrantLock JVM_LOCK = new ReentrantLock();
+
+    private final FileChannel channel;
+
+    private final FileLock lock;
+
+    private final MappedByteBuffer buffer;
+
+    private final long build;
+
+    private PortLeaseRegistry(FileChannel channel, FileLock lock, MappedByteBuffer buffer, long build) {
+        this.channel = channel;
+        this.lock = lock;
+        this.buffer = buffer;
+        this.build = build;
+    }
+
+    /**
+     * Opens and locks the registry, creating the file if needed. Blocks until other processes release it.
+     *
+     * @param file the registry file.
+     * @param build identifies the current build among the builds of this process, such as its start time.
+     * @return the opened registry, to be closed by the caller.
+     * @throws IOException if the file cannot be created, mapped or locked.
+     */
+    static PortLeaseRegistry open(File file, long build) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+            throw new IOException("Cannot create directory " + parent);
+        }
+        JVM_LOCK.lock();
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(
+                    file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            FileLock lock = channel.lock();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+            if (buffer.getInt(0) != MAGIC) {
+                // new or foreign file: start from an empty registry
+                for (int i = 0; i < FILE_SIZE; i += 8) {
+                    buffer.putLong(i, 0L);
+                }
+                buffer.putInt(0, MAGIC);
+            }
+            return new PortLeaseRegistry(channel, lock, buffer, build);
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            JVM_LOCK.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * @param port the port to check.
+     * @return {@code true} if the port is held by a lease which has not expired and whose owner is still running, or
+     *         which the current build took.
+     */
+    boolean isLeased(int port) {
+        int slot = slot(port);
+        long pid = buffer.getLong(slot);
+        if (pid == 0) {
+            return false;
+        }
+        boolean stale = pid == CURRENT_PID ? buffer.getLong(slot + 8) != build : !isAlive(pid);
+        if (stale || buffer.getLong(slot + 16) < System.currentTimeMillis()) {
+            clear(slot);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records a lease on the given port for the current process.
+     *
+     * @param port the port to lease.
+     * @param durationMillis how long the lease is valid.
+     */
+    void lease(int port, long durationMillis) {
+        int slot = slot(port);
+        buffer.putLong(slot, CURRENT_PID);
+        buffer.putLong(slot + 8, build);
+        buffer.putLong(slot + 16, System.currentTimeMillis() + durationMillis);
+    }
+
+    /**
+     * Drops the lease on the given port if it is owned by the current process.
+     *
+     * @param port the port to release.
+     */
+    void release(int port) {
+        int slot = slot(port);
+        if (buffer.getLong(slot) == CURRENT_PID) {
+            clear(slot);
+        }
+    }
+
+    private void clear(int slot) {
+        buffer.putLong(slot, 0L);
+        buffer.putLong(slot + 8, 0L);
+        buffer.putLong(slot + 16, 0L);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            buffer.force();
+            lock.release();
+            channel.close();
+        } finally {
+            JVM_LOCK.unlock();
+        }
+    }
+
+    private static int slot(int port) {
+        if (port < 0 || port >= PortBitmap.PORT_COUNT) {
+            throw new IllegalArgumentException("Invalid port number " + port);
+        }
+        return HEADER_SIZE + port * SLOT_SIZE;
+    }
+
+    private static boolean isAlive(long pid) {
+        if (PROCESS_HANDLE_OF != null) {
+            try {
+                Optional<?> handle = (Optional<?>) PROCESS_HANDLE_OF.invoke(null, pid);
+                return handle.isPresent() && (Boolean) PROCESS_HANDLE_IS_ALIVE.invoke(handle.get());
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // fall back to procfs
+            }
+        }
+        // Without a way to check, rely on the lease expiry
+        return !PROC.isDirectory() || new File(PROC, Long.toString(pid)).exists();
+    }
+
+    /**
+     * Looks up a method of {@code ProcessHandle}, which checks processes on all platforms from Java 9 on.
+     */
+    private static Method processHandleMethod(String name, Class<?>... parameterTypes) {
+        try {
+            return Class.forName("java.lang.ProcessHandle").getMethod(name, parameterTypes);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static long currentPid() {
+        // the runtime name is "pid@hostname" on all common JVMs
+        String name = ManagementFactory.getRuntimeMXBean().getName();
+        try {
+            return Long.parseLong(name.substring(0, name.indexOf('@')));
+        } catch (RuntimeException e) {
+            return name.hashCode() & 0x7fffffffL | 1L;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.channels.ServerSocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+/**
+ * Binds server sockets on candidate ports of a range through {@link ServerSocketChannel}s. Candidates which cannot be
+ * bound are remembered and counted rather than reported one by one, so that probing a crowded range stays cheap.
+ *
+ * @since 3.6.2
+ */
+final class PortProber {
+    private final PortBitmap excluded;
+
+    private final int minPort;
+
+    private final int maxPort;
+
+    private final Random random;
+
+    private final IntPredicate skipped;
+
+    private int cursor;
+
+    private int probed;
+
+    private int failedBinds;
+
+    /**
+     * @param excluded ports which must not be handed out; ports tried by this prober are added to it.
+     * @param minPort first port of the range, inclusive.
+     * @param maxPort last port of the range, inclusive.
+     * @param random the source of randomness to pick candidates in random order, {@code null} to pick them in
+     *            ascending order.
+     * @param skipped candidates to skip without trying to bind them.
+     */
+    PortProber(PortBitmap excluded, int minPort, int maxPort, Random random, IntPredicate skipped) {
+        this.excluded = excluded;
+        this.minPort = minPort;
+        this.maxPort = maxPort;
+        this.random = random;
+        this.skipped = skipped;
+        this.cursor = minPort;
+    }
+
+    /**
+     * Binds the next available candidate of the range.
+     *
+     * @return the bound socket, or {@code null} if no candidate is left.
+     */
+    ServerSocket bindNext() {
+        int port;
+        while ((port = nextCandidate()) != -1) {
+            excluded.set(port);
+            if (skipped.test(port)) {
+                continue;
+            }
+            ServerSocket socket = tryBind(port);
+            if (socket != null) {
+                return socket;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Binds the first available candidate at or after the given port, wrapping around to the start of the range.
+     *
+     * @param startPort the port to start probing from, within the range.
+     * @return the bound socket, or {@code null} if no candidate is left.
+     */
+    ServerSocket bindFrom(int startPort) {
+        int port;
+        while ((port = nextCandidateFrom(startPort)) != -1) {
+            excluded.set(port);
+            if (skipped.test(port)) {
+                continue;
+            }
+            ServerSocket socket = tryBind(port);
+            if (socket != null) {
+                return socket;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Binds a block of consecutive ports, starting from the next candidate of the range.
+     *
+     * @param size the number of consecutive ports.
+     * @return the bound sockets in ascending port order, or {@code null} if no such block is left.
+     */
+    List<ServerSocket> bindBlock(int size) {
+        int startPort = nextCandidate();
+        return startPort == -1 ? null : bindBlockFrom(startPort, size);
+    }
+
+    /**
+     * Binds the first block of consecutive available ports at or after the given port, wrapping around to the start of
+     * the range.
+     *
+     * @param startPort the port to start probing from, within the range.
+     * @param size the number of consecutive ports.
+     * @return the bound sockets in ascending port order, or {@code null} if no such block is left.
+     */
+    List<ServerSocket> bindBlockFrom(int startPort, int size) {
+        List<ServerSocket> sockets = new ArrayList<ServerSocket>(size);
+        int from = startPort;
+        while (true) {
+            int basePort = excluded.nextClearRun(from, maxPort, size);
+            if (basePort == -1 && from > minPort) {
+                basePort = excluded.nextClearRun(minPort, maxPort, size);
+            }
+            if (basePort == -1) {
+                return null;
+            }
+            int failedPort = -1;
+            for (int port = basePort; port < basePort + size && failedPort == -1; port++) {
+                ServerSocket socket = skipped.test(port) ? null : tryBind(port);
+                if (socket == null) {
+                    failedPort = port;
+                } else {
+                    sockets.add(socket);
+                }
+            }
+            if (failedPort == -1) {
+                for (int port = basePort; port < basePort + size; port++) {
+                    excluded.set(port);
+                }
+                return sockets;
+            }
+            // the block is broken: free the ports bound so far and look for the next block after the culprit
+            excluded.set(failedPort);
+            for (ServerSocket socket : sockets) {
+                closeQuietly(socket);
+            }
+            sockets.clear();
+            from = failedPort < maxPort ? failedPort + 1 : minPort;
+        }
+    }
+
+    /**
+     * Binds a port chosen by the system, ignoring the configured range.
+     *
+     * @return the bound socket.
+     * @throws IOException if the system cannot provide any port.
+     */
+    ServerSocket bindEphemeral() throws IOException {
+        ServerSocket socket = bind(0);
+        while (excluded.isSet(socket.getLocalPort()) || skipped.test(socket.getLocalPort())) {
+            // bind the next one before closing, so that the system does not hand out the same port again
+            ServerSocket nextSocket;
+            try {
+                nextSocket = bind(0);
+            } finally {
+                socket.close();
+            }
+            socket = nextSocket;
+        }
+        probed++;
+        return socket;
+    }
+
+    /**
+     * @return the number of ports this prober tried to bind.
+     */
+    int getProbed() {
+        return probed;
+    }
+
+    /**
+     * @return the number of ports this prober could not bind because they were in use.
+     */
+    int getFailedBinds() {
+        return failedBinds;
+    }
+
+    private int nextCandidate() {
+        if (random != null) {
+            return excluded.randomClear(minPort, maxPort, random);
+        }
+        if (cursor > maxPort) {
+            return -1;
+        }
+        int port = excluded.nextClear(cursor, maxPort);
+        cursor = port == -1 ? maxPort + 1 : port + 1;
+        return port;
+    }
+
+    private int nextCandidateFrom(int startPort) {
+        int port = excluded.nextClear(startPort, maxPort);
+        if (port == -1 && startPort > minPort) {
+            port = excluded.nextClear(minPort, startPort - 1);
+        }
+        return port;
+    }
+
+    private ServerSocket tryBind(int port) {
+        probed++;
+        try {
+            return bind(port);
+        } catch (IOException e) {
+            failedBinds++;
+            return null;
+        }
+    }
+
+    private static void closeQuietly(ServerSocket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // the port was never handed out, nothing to report
+        }
+    }
+
+    private static ServerSocket bind(int port) throws IOException {
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        try {
+            channel.bind(new InetSocketAddress(port));
+            return channel.socket();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+
+/**
+ * Figures collected while reserving the ports of one <code>reserve-network-port</code> execution.
+ *
+ * @since 3.6.2
+ */
+final class PortReservationMetrics {
+    /**
+     * The outcome of a reservation which bound all its ports.
+     */
+    static final String RESERVED = "reserved";
+
+    /**
+     * The outcome of a reservation which found no more free ports in its range.
+     */
+    static final String EXHAUSTED = "exhausted";
+
+    /**
+     * The outcome of a reservation which failed otherwise, such as on an error of the system.
+     */
+    static final String FAILED = "failed";
+
+    private final String mode;
+
+    private String outcome = FAILED;
+
+    private final long startNanos = System.nanoTime();
+
+    private long lockRequestedNanos;
+
+    private long lockAcquiredNanos;
+
+    private long lockReleasedNanos;
+
+    private long firstPortNanos = -1;
+
+    private int portsReserved;
+
+    private int candidatesProbed;
+
+    private int failedBinds;
+
+    private int minPort;
+
+    private int maxPort;
+
+    private int reservedInRange;
+
+    PortReservationMetrics(String mode) {
+        this.mode = mode;
+    }
+
+    void outcome(String outcome) {
+        this.outcome = outcome;
+    }
+
+    void lockRequested() {
+        lockRequestedNanos = System.nanoTime();
+    }
+
+    void lockAcquired() {
+        lockAcquiredNanos = System.nanoTime();
+    }
+
+    void lockReleased() {
+        lockReleasedNanos = System.nanoTime();
+    }
+
+    void portReserved() {
+        if (firstPortNanos < 0) {
+            firstPortNanos = System.nanoTime() - startNanos;
+        }
+        portsReserved++;
+    }
+
+    void probed(PortProber prober) {
+        candidatesProbed = prober.getProbed();
+        failedBinds = prober.getFailedBinds();
+    }
+
+    /**
+     * Records how much of the range is reserved once the execution is done.
+     */
+    void range(int minPort, int maxPort, PortBitmap reservedPorts) {
+        this.minPort = minPort;
+        this.maxPort = maxPort;
+        this.reservedInRange = maxPort - minPort + 1 - reservedPorts.countClear(minPort, maxPort);
+    }
+
+    String toJson() {
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"mode\": \"").append(mode).append("\",\n");
+        json.append("  \"outcome\": \"").append(outcome).append("\",\n");
+        json.append("  \"portsReserved\": ").append(portsReserved).append(",\n");
+        json.append("  \"candidatesProbed\": ").append(candidatesProbed).append(",\n");
+        json.append("  \"failedBinds\": ").append(failedBinds).append(",\n");
+        json.append("  \"lockWaitMillis\": ")
+                .append(millis(lockAcquiredNanos - lockRequestedNanos))
+                .append(",\n");
+        json.append("  \"lockHoldMillis\": ")
+                .append(millis(lockReleasedNanos - lockAcquiredNanos))
+                .append(",\n");
+        json.append("  \"timeToFirstPortMillis\": ")
+                .append(firstPortNanos < 0 ? "null" : millis(firstPortNanos))
+                .append(",\n");
+        if (maxPort > 0) {
+            json.append("  \"minPort\": ").append(minPort).append(",\n");
+            json.append("  \"maxPort\": ").append(maxPort).append(",\n");
+            json.append("  \"rangeUtilisation\": ")
+                    .append(String.format(Locale.ROOT, "%.4f", reservedInRange / (double) (maxPort - minPort + 1)))
+                    .append(",\n");
+        }
+        json.append("  \"totalMillis\": ")
+                .append(millis(System.nanoTime() - startNanos))
+                .append("\n");
+        return json.append("}\n").toString();
+    }
+
+    void write(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory " + parent);
+        }
+        try (OutputStream os = Files.newOutputStream(file.toPath())) {
+            os.write(toJson().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+}
@@ -0,0 +1,111 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Reads the TCP socket tables of the Linux procfs to find the local ports which are already listening or still in
+ * <code>TIME_WAIT</code>, so that they can be excluded before trying to bind them.
+ *
+ * @since 3.6.2
+ */
+final class ProcNetPorts {
+    private static final String[] TABLES = {"/proc/net/tcp", "/proc/net/tcp6"};
+
+    private static final int STATE_TIME_WAIT = 0x06;
+
+    private static final int STATE_LISTEN = 0x0A;
+
+    private ProcNetPorts() {}
+
+    /**
+     * @return {@code true} if the socket tables can be read on this system.
+     */
+    static boolean isAvailable() {
+        return new File(TABLES[0]).canRead();
+    }
+
+    /**
+     * Reads all available socket tables.
+     *
+     * @return the local ports in <code>LISTEN</code> or <code>TIME_WAIT</code> state.
+     * @throws IOException if a socket table cannot be read.
+     */
+    static PortBitmap readBusyPorts() throws IOException {
+        PortBitmap busyPorts = new PortBitmap();
+        for (String table : TABLES) {
+            File file = new File(table);
+            if (file.canRead()) {
+                read(file, busyPorts);
+            }
+        }
+        return busyPorts;
+    }
+
+    private static void read(File table, PortBitmap busyPorts) throws IOException {
+        try (Reader reader = Files.newBufferedReader(table.toPath(), StandardCharsets.US_ASCII)) {
+            read(reader, busyPorts);
+        }
+    }
+
+    /**
+     * Parses one socket table. Rows which cannot be parsed are skipped, the table format is only known from the kernel
+     * sources and an unexpected row should not cost the ports found in the other rows.
+     *
+     * @param table the content of a socket table, starting with its header line.
+     * @param busyPorts the bitmap to mark the local ports in <code>LISTEN</code> or <code>TIME_WAIT</code> state in.
+     * @throws IOException if the table cannot be read.
+     */
+    static void read(Reader table, PortBitmap busyPorts) throws IOException {
+        BufferedReader reader = new BufferedReader(table);
+        // skip the header line
+        String line = reader.readLine();
+        while ((line = reader.readLine()) != null) {
+            // sl local_address rem_address st ..., with addresses as HEXADDRESS:HEXPORT
+            String[] fields = line.trim().split("\\s+", 5);
+            if (fields.length < 4) {
+                continue;
+            }
+            try {
+                int state = Integer.parseInt(fields[3], 16);
+                if (state == STATE_LISTEN || state == STATE_TIME_WAIT) {
+                    String localAddress = fields[1];
+                    int port = Integer.parseInt(localAddress.substring(localAddress.lastIndexOf(':') + 1), 16);
+                    if (port >= 0 && port < PortBitmap.PORT_COUNT) {
+                        busyPorts.set(port);
+                    }
+                }
+            } catch (NumberFormatException e) {
+                // not a socket row
+            }
+        }
+    }
+}
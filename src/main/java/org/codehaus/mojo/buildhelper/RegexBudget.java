@@ -0,0 +1,135 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the work of the regex engine on an input, so that a regex which backtracks catastrophically fails fast
+ * instead of hanging the build. The engine reads its input through {@link #wrap(CharSequence)}, which counts the
+ * characters read and checks the deadline and the interruption of the thread as it goes.
+ *
+ * @since 3.6.2
+ */
+final class RegexBudget {
+    /**
+     * The number of characters read between two checks of the clock.
+     */
+    private static final int CHECK_INTERVAL = 4096;
+
+    private final long maxSteps;
+
+    private final long timeoutMillis;
+
+    private final long deadline;
+
+    private long steps;
+
+    private int untilCheck = CHECK_INTERVAL;
+
+    /**
+     * @param maxSteps the maximum number of characters the engine may read, <code>0</code> for no limit.
+     * @param timeoutMillis the maximum time the engine may spend, in milliseconds from now, <code>0</code> for no
+     *            limit.
+     */
+    RegexBudget(long maxSteps, long timeoutMillis) {
+        this.maxSteps = maxSteps;
+        this.timeoutMillis = timeoutMillis;
+        this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * Wraps an input so that reading it consumes the budget.
+     *
+     * @param input the input.
+     * @return the wrapped input, or the input itself if the budget is unlimited.
+     */
+    CharSequence wrap(CharSequence input) {
+        return maxSteps <= 0 && timeoutMillis <= 0 ? input : new Input(input);
+    }
+
+    long getSteps() {
+        return steps;
+    }
+
+    private void step() {
+        steps++;
+        if (maxSteps > 0 && steps > maxSteps) {
+            throw new ExceededException("more than " + maxSteps + " steps");
+        }
+        if (--untilCheck == 0) {
+            untilCheck = CHECK_INTERVAL;
+            if (timeoutMillis > 0 && System.nanoTime() - deadline > 0) {
+                throw new ExceededException("more than " + timeoutMillis + " ms");
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new ExceededException("the thread was interrupted");
+            }
+        }
+    }
+
+    /**
+     * Thrown from within the regex engine once the budget is spent.
+     */
+    static final class ExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ExceededException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * An input whose reads consume the budget. Subsequences share it.
+     */
+    private final class Input implements CharSequence {
+        private final CharSequence delegate;
+
+        private Input(CharSequence delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int length() {
+            return delegate.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            step();
+            return delegate.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new Input(delegate.subSequence(start, end));
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
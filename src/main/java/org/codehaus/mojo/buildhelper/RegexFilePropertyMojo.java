@@ -0,0 +1,237 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.codehaus.plexus.util.StringUtils;
+
+/**
+ * Sets a property from the first match of a regex in the content of a file. If the regex has named groups, a property
+ * <code>name.group</code> is defined for each of them. Otherwise the property is set to the first group of the match,
+ * or to the whole match if the regex has no group. The file is read in bounded chunks and the read stops at the first
+ * match, so that large files such as logs or lockfiles are never held in memory as a whole.
+ *
+ * @since 3.6.2
+ */
+@Mojo(name = "regex-file-property", defaultPhase = LifecyclePhase.VALIDATE, threadSafe = true)
+public class RegexFilePropertyMojo extends AbstractRegexPropertyMojo {
+    /**
+     * The number of characters read at once.
+     */
+    private static final int CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * The largest {@link #maxMatchLength} for which the window fits in an array.
+     */
+    private static final int MAX_MATCH_LENGTH = (Integer.MAX_VALUE - CHUNK_SIZE) / 2;
+
+    /**
+     * The property to set, or the prefix of the properties to set for named groups.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(required = true)
+    private String name;
+
+    /**
+     * The file to search.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(required = true)
+    private File file;
+
+    /**
+     * The regex to search the file for.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(required = true)
+    private String regex;
+
+    /**
+     * The encoding of the file.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(defaultValue = "${project.build.sourceEncoding}")
+    private String encoding;
+
+    /**
+     * The length of the longest match expected, in characters. The file is searched through a window which keeps that
+     * many characters of the previous chunk, so that a match spanning two chunks is still found. As many characters
+     * before the searched part are kept for lookbehinds.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(defaultValue = "65536")
+    private int maxMatchLength;
+
+    /**
+     * Whether to fail if no match is found.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(defaultValue = "true")
+    private boolean failIfNoMatch;
+
+    /**
+     * Make the values of the resulting properties upper case.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(defaultValue = "false")
+    private boolean toUpperCase;
+
+    /**
+     * Make the values of the resulting properties lower case.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(defaultValue = "false")
+    private boolean toLowerCase;
+
+    /**
+     * {@inheritDoc}
+     */
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        RegexPropertySetting config = new RegexPropertySetting();
+        config.setName(name);
+        config.setValue(file != null ? file.getPath() : null);
+        config.setRegex(regex);
+        config.setFailIfNoMatch(failIfNoMatch);
+        config.setToLowerCase(toLowerCase);
+        config.setToUpperCase(toUpperCase);
+        try {
+            config.validate();
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+        if (!file.isFile()) {
+            throw new MojoExecutionException("File not found: " + file);
+        }
+        if (maxMatchLength <= 0 || maxMatchLength > MAX_MATCH_LENGTH) {
+            throw new MojoExecutionException("maxMatchLength must be between 1 and " + MAX_MATCH_LENGTH);
+        }
+
+        Pattern pattern = compile(regex, 0);
+        List<String> groups = getGroupNames(regex);
+        Charset charset;
+        try {
+            charset = StringUtils.isEmpty(encoding) ? Charset.defaultCharset() : Charset.forName(encoding);
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            throw new MojoExecutionException("Unsupported encoding '" + encoding + "'", e);
+        }
+
+        Matcher matcher;
+        RegexBudget budget = newBudget();
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file.toPath()), charset)) {
+            matcher = find(pattern, reader, maxMatchLength, budget);
+        } catch (RegexBudget.ExceededException e) {
+            throw budgetExceeded(config, budget, e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot read " + file + ": " + e.getMessage(), e);
+        }
+
+        if (matcher == null) {
+            noMatch(config, "No property is defined...");
+        } else if (!groups.isEmpty()) {
+            defineGroups(config, matcher, groups);
+        } else {
+            String value = matcher.groupCount() > 0 ? matcher.group(1) : matcher.group();
+            if (value != null) {
+                defineProperty(name, changeCase(config, value));
+            }
+        }
+    }
+
+    /**
+     * Finds the first match of a pattern in a stream of characters, reading it chunk by chunk through a window which
+     * keeps the end of the previous chunk. Up to <code>overlap</code> characters before the searched part are kept as
+     * well, so that lookbehinds see across the boundary.
+     *
+     * @param pattern the pattern to search for.
+     * @param reader the characters to search.
+     * @param overlap the number of characters of the previous chunk to keep.
+     * @param budget the budget of the search.
+     * @return the matcher holding the first match, or <code>null</code> if there is none.
+     * @throws IOException if the characters cannot be read.
+     */
+    static Matcher find(Pattern pattern, Reader reader, int overlap, RegexBudget budget) throws IOException {
+        char[] window = new char[2 * overlap + CHUNK_SIZE];
+        int length = 0;
+        // The number of characters before the searched part of the window, kept as the context of lookbehinds.
+        int from = 0;
+        boolean end = false;
+        while (true) {
+            while (!end && length < window.length) {
+                int read = reader.read(window, length, window.length - length);
+                if (read < 0) {
+                    end = true;
+                } else {
+                    length += read;
+                }
+            }
+            Matcher matcher = pattern.matcher(budget.wrap(CharBuffer.wrap(window, 0, length)));
+            // Only the start of the file matches ^, and $ at the end of a window hits the end.
+            matcher.useTransparentBounds(true).useAnchoringBounds(false).region(from, length);
+            boolean found = matcher.find();
+            // A match which reached the end of the window might extend into the next chunk.
+            if (found && (end || !matcher.hitEnd())) {
+                return matcher;
+            }
+            if (end) {
+                return null;
+            }
+            // A failed candidate may have ended the window too, so the next window covers the whole overlap.
+            int begin = found ? Math.min(matcher.start(), length - overlap) : length - overlap;
+            if (begin <= from) {
+                // The match is longer than the window, take it as it is.
+                return matcher;
+            }
+            int context = Math.min(overlap, begin);
+            System.arraycopy(window, begin - context, window, 0, length - begin + context);
+            length -= begin - context;
+            from = context;
+        }
+    }
+}
@@ -68,6 +68,24 @@ public class RegexPropertyMojo extends AbstractRegexPropertyMojo {
     @Parameter(defaultValue = "true")
     private boolean failIfNoMatch;
 
+    /**
+     * Whether the regex is a literal string, whose characters only match themselves. A regex without any
+     * metacharacter is always treated as a literal.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(defaultValue = "false")
+    private boolean literal;
+
+    /**
+     * Instead of replacing the matches, define a property <code>name.group</code> for each named group of the first
+     * match.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(defaultValue = "false")
+    private boolean capture;
+
     /**
      * Make the value of the resulting property upper case.
      *
@@ -94,6 +112,8 @@ public class RegexPropertyMojo extends AbstractRegexPropertyMojo {
         config.setRegex(regex);
         config.setReplacement(replacement);
         config.setFailIfNoMatch(failIfNoMatch);
+        config.setLiteral(literal);
+        config.setCapture(capture);
         config.setToLowerCase(toLowerCase);
         config.setToUpperCase(toUpperCase);
 
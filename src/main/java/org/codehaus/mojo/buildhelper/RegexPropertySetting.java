@@ -58,6 +58,25 @@ public class RegexPropertySetting {
     @Parameter(defaultValue = "true")
     private boolean failIfNoMatch = true;
 
+    /**
+     * Whether the regex is a literal string, whose characters only match themselves. A regex without any
+     * metacharacter is always treated as a literal.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(defaultValue = "false")
+    private boolean literal = false;
+
+    /**
+     * Instead of replacing the matches, define a property <code>name.group</code> for each named group of the first
+     * match, such as <code>branch.type</code> and <code>branch.ticket</code> for a property <code>branch</code> and
+     * the regex <code>(?&lt;type&gt;\w+)/(?&lt;ticket&gt;[A-Z]+-\d+)</code>.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(defaultValue = "false")
+    private boolean capture = false;
+
     /**
      * Change the case of the value to upper case if set to true.
      */
@@ -110,6 +129,22 @@ public class RegexPropertySetting {
         this.failIfNoMatch = failIfNoMatch;
     }
 
+    public boolean isLiteral() {
+        return literal;
+    }
+
+    public void setLiteral(boolean literal) {
+        this.literal = literal;
+    }
+
+    public boolean isCapture() {
+        return capture;
+    }
+
+    public void setCapture(boolean capture) {
+        this.capture = capture;
+    }
+
     public boolean isToUpperCase() {
         return toUpperCase;
     }
@@ -142,5 +177,9 @@ public class RegexPropertySetting {
         if (toLowerCase && toUpperCase) {
             throw new IllegalArgumentException("either toUpperCase or toLowerCase can be set, but not both.");
         }
+
+        if (capture && literal) {
+            throw new IllegalArgumentException("either capture or literal can be set, but not both.");
+        }
     }
 }
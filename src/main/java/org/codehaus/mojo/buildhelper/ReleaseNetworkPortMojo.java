@@ -0,0 +1,129 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.codehaus.plexus.util.StringUtils;
+
+/**
+ * Free network ports which have been kept bound by the <code>reserve-network-port</code> goal with
+ * <code>holdPorts</code> enabled, right before they are used. Given the <code>leaseFile</code> of the reservation,
+ * the leases of the released ports are dropped as well.
+ *
+ * @since 3.6.2
+ */
+@Mojo(name = "release-network-port", defaultPhase = LifecyclePhase.PRE_INTEGRATION_TEST, threadSafe = true)
+public class ReleaseNetworkPortMojo extends AbstractMojo {
+    /**
+     * The names of the port properties to release. If none are given, all ports held for the current project are
+     * released. For a block of ports, the name releases the whole block.
+     *
+     * @since 3.6.2
+     */
+    @Parameter
+    private String[] portNames = new String[0];
+
+    /**
+     * The port lease file the ports were reserved in, whose leases on the released ports are dropped.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(property = "buildhelper.leaseFile")
+    private File leaseFile;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void execute() throws MojoExecutionException {
+        List<ServerSocket> released = new ArrayList<ServerSocket>();
+        synchronized (ReserveListenerPortMojo.LOCK) {
+            Map<String, ServerSocket> heldSockets =
+                    (Map<String, ServerSocket>) getPluginContext().get(ReserveListenerPortMojo.BUILD_HELPER_HELD_PORTS);
+            if (heldSockets == null || heldSockets.isEmpty()) {
+                getLog().info("No held ports to release.");
+                return;
+            }
+            List<String> names = Arrays.asList(portNames);
+            Iterator<String> it = heldSockets.keySet().iterator();
+            while (it.hasNext()) {
+                String name = it.next();
+                if (names.isEmpty() || names.contains(blockName(name))) {
+                    ServerSocket socket = heldSockets.get(name);
+                    released.add(socket);
+                    it.remove();
+                    getLog().info("Releasing port " + socket.getLocalPort() + " for " + name);
+                }
+            }
+        }
+
+        List<Integer> releasedPorts = new ArrayList<Integer>(released.size());
+        for (ServerSocket socket : released) {
+            int port = socket.getLocalPort();
+            releasedPorts.add(port);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                getLog().error("Cannot free reserved port " + port);
+            }
+        }
+
+        if (leaseFile != null) {
+            // Leases of ports from other builds are left alone
+            try (PortLeaseRegistry registry = PortLeaseRegistry.open(leaseFile, 0L)) {
+                for (int port : releasedPorts) {
+                    registry.release(port);
+                }
+            } catch (IOException e) {
+                getLog().warn("Cannot release the leases in " + leaseFile + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return the port name of a block member, i.e. its name without the <code>.offset</code> suffix.
+     */
+    private String blockName(String heldName) {
+        int dot = heldName.lastIndexOf('.');
+        if (dot > 0 && !Arrays.asList(portNames).contains(heldName)) {
+            String suffix = heldName.substring(dot + 1);
+            if (!suffix.isEmpty() && StringUtils.isNumeric(suffix)) {
+                return heldName.substring(0, dot);
+            }
+        }
+        return heldName;
+    }
+}
@@ -34,13 +34,21 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.ServerSocket;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
 
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
@@ -48,6 +56,7 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.util.IOUtil;
+import org.eclipse.aether.SessionData;
 
 /**
  * Reserve a list of random and not in use network ports and place them in a configurable project properties.
@@ -60,11 +69,15 @@ import org.codehaus.plexus.util.IOUtil;
 public class ReserveListenerPortMojo extends AbstractMojo {
     private static final String BUILD_HELPER_RESERVED_PORTS = "BUILD_HELPER_MIN_PORT";
 
+    static final String BUILD_HELPER_HELD_PORTS = "BUILD_HELPER_HELD_PORTS";
+
     private static final int FIRST_NON_ROOT_PORT_NUMBER = 1024;
 
     private static final Integer MAX_PORT_NUMBER = 65535;
 
-    private static final Object LOCK = new Object();
+    static final Object LOCK = new Object();
+
+    private static final Random RANDOM = new Random();
 
     /**
      * A List to property names to be placed in Maven project. At least one of {@code #urls} or {@code #portNames} has
@@ -119,12 +132,96 @@ public class ReserveListenerPortMojo extends AbstractMojo {
     @Parameter
     private boolean randomPort;
 
+    /**
+     * Specify true if you want every port to be derived from a hash of <code>groupId:artifactId:portName</code>
+     * within the configured range. Probing starts at that port and moves on to the next ones if it is not available,
+     * so the same module usually gets the same port from one build to another, and parallel modules rarely probe the
+     * same ports. If no range is given, {@link #minPortNumber} defaults to {@value #FIRST_NON_ROOT_PORT_NUMBER}. Cannot
+     * be combined with {@link #randomPort}.
+     *
+     * @since 3.6.2
+     */
+    @Parameter
+    private boolean deterministicPort;
+
+    /**
+     * Specify true to skip the ports which are already listening or in <code>TIME_WAIT</code> state without trying to
+     * bind them. The socket tables are read once per execution from <code>/proc/net/tcp</code> and
+     * <code>/proc/net/tcp6</code>, so this only has an effect on Linux.
+     *
+     * @since 3.6.2
+     */
+    @Parameter
+    private boolean skipBusyPorts;
+
+    /**
+     * The number of consecutive ports to reserve for every port name. If greater than 1, the property named after the
+     * port name holds the first port of the block, and properties suffixed with <code>.0</code>,
+     * <code>.1</code>, ... hold every port of the block. If no range is given, {@link #minPortNumber} defaults to
+     * {@value #FIRST_NON_ROOT_PORT_NUMBER}.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(defaultValue = "1")
+    private int blockSize = 1;
+
+    /**
+     * A file to write metrics of the reservation to, in JSON format: its outcome, the number of candidates probed and
+     * of failed binds, the time spent waiting for and holding the reservation lock, the time to the first free port and
+     * the utilisation of the port range. The file is also written when the reservation fails. For instance
+     * <code>${project.build.directory}/reserve-network-port-${mojoExecution.executionId}.json</code>.
+     *
+     * @since 3.6.2
+     */
+    @Parameter
+    private File metricsFile;
+
+    /**
+     * Keep the reserved ports bound after the execution, so that no other process can take them before they are
+     * actually used. The ports are then freed by the <code>release-network-port</code> goal, which should run right
+     * before the ports are needed, for instance in the <code>pre-integration-test</code> phase.
+     * <p>
+     * The held sockets live as long as the plugin's class loader. With the Maven daemon, which keeps it across builds,
+     * ports whose <code>release-network-port</code> never runs, for instance because the build failed before, stay
+     * bound until the daemon stops.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(property = "buildhelper.holdPorts", defaultValue = "false")
+    private boolean holdPorts;
+
+    /**
+     * A file, shared by all builds running on this host, in which every reserved port is leased. Ports leased by
+     * another running build are skipped, so that concurrent builds on the same machine do not pick the same port, for
+     * instance <code>${java.io.tmpdir}/build-helper-port-leases</code>. Leases expire after {@link #leaseDuration}
+     * seconds. They are dropped by the <code>release-network-port</code> goal given the same file, or when the
+     * reservation fails, and leases of builds which are no longer running are reclaimed, including the earlier builds
+     * of a Maven daemon. If not given, ports are only coordinated within the current build.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(property = "buildhelper.leaseFile")
+    private File leaseFile;
+
+    /**
+     * The number of seconds a port leased in {@link #leaseFile} stays reserved.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(property = "buildhelper.leaseDuration", defaultValue = "3600")
+    private int leaseDuration = 3600;
+
     /**
      * @since 1.2
      */
     @Parameter(readonly = true, defaultValue = "${project}")
     private MavenProject project;
 
+    @Parameter(readonly = true, defaultValue = "${session}")
+    private MavenSession mavenSession;
+
+    private PortLeaseRegistry leases;
+
     @Override
     public void execute() throws MojoExecutionException {
         Properties properties = project.getProperties();
@@ -136,19 +233,29 @@ public class ReserveListenerPortMojo extends AbstractMojo {
         loadUrls();
 
         // Reserve the entire block of ports to guarantee we don't get the same port twice
-        final List<ServerSocket> sockets = new ArrayList<ServerSocket>();
+        final Map<String, ServerSocket> sockets = new LinkedHashMap<String, ServerSocket>();
+        List<ServerSocket> reservedSockets = Collections.emptyList();
+        boolean reserved = false;
         try {
-            for (String portName : portNames) {
-                try {
-                    final ServerSocket socket = getServerSocket();
-                    sockets.add(socket);
-
-                    final String unusedPort = Integer.toString(socket.getLocalPort());
-                    properties.put(portName, unusedPort);
-                    getReservedPorts().add(socket.getLocalPort());
-                    this.getLog().info("Reserved port " + unusedPort + " for " + portName);
-                } catch (IOException e) {
-                    throw new MojoExecutionException("Error getting an available port from system", e);
+            reservedSockets = reservePorts(portNames);
+            for (int i = 0; i < portNames.length; i++) {
+                final ServerSocket socket = reservedSockets.get(i * blockSize);
+                closeQuietly(sockets.put(portNames[i], socket));
+
+                final String unusedPort = Integer.toString(socket.getLocalPort());
+                properties.put(portNames[i], unusedPort);
+                if (blockSize > 1) {
+                    properties.put(portNames[i] + ".0", unusedPort);
+                    for (int offset = 1; offset < blockSize; offset++) {
+                        final ServerSocket blockSocket = reservedSockets.get(i * blockSize + offset);
+                        closeQuietly(sockets.put(portNames[i] + "." + offset, blockSocket));
+                        properties.put(portNames[i] + "." + offset, Integer.toString(blockSocket.getLocalPort()));
+                    }
+                    this.getLog()
+                            .info("Reserved ports " + unusedPort + "-" + (socket.getLocalPort() + blockSize - 1)
+                                    + " for " + portNames[i]);
+                } else {
+                    this.getLog().info("Reserved port " + unusedPort + " for " + portNames[i]);
                 }
             }
 
@@ -170,19 +277,110 @@ public class ReserveListenerPortMojo extends AbstractMojo {
                     IOUtil.close(os);
                 }
             }
+            reserved = true;
         } finally {
-            // Now free all the ports
-            for (ServerSocket socket : sockets) {
-                final int localPort = socket.getLocalPort();
-                try {
-                    socket.close();
-                } catch (IOException e) {
-                    this.getLog().error("Cannot free reserved port " + localPort);
+            if (!reserved) {
+                releaseLeases(reservedSockets);
+            }
+            if (holdPorts && reserved) {
+                holdSockets(sockets);
+            } else {
+                // Now free all the ports
+                for (ServerSocket socket : sockets.values()) {
+                    closeQuietly(socket);
                 }
             }
         }
     }
 
+    /**
+     * Hands the still bound sockets over to the plugin context, where <code>release-network-port</code> finds them.
+     */
+    @SuppressWarnings("unchecked")
+    private void holdSockets(Map<String, ServerSocket> sockets) {
+        synchronized (LOCK) {
+            Map<String, ServerSocket> heldSockets =
+                    (Map<String, ServerSocket>) getPluginContext().get(BUILD_HELPER_HELD_PORTS);
+            if (heldSockets == null) {
+                heldSockets = new LinkedHashMap<String, ServerSocket>();
+                getPluginContext().put(BUILD_HELPER_HELD_PORTS, heldSockets);
+            }
+            for (Map.Entry<String, ServerSocket> entry : sockets.entrySet()) {
+                closeQuietly(heldSockets.put(entry.getKey(), entry.getValue()));
+                getLog().debug("Holding port " + entry.getValue().getLocalPort() + " for " + entry.getKey());
+            }
+        }
+    }
+
+    private void closeQuietly(ServerSocket socket) {
+        if (socket != null) {
+            final int localPort = socket.getLocalPort();
+            try {
+                socket.close();
+            } catch (IOException e) {
+                this.getLog().error("Cannot free reserved port " + localPort);
+            }
+        }
+    }
+
+    private void openLeaseRegistry() throws MojoExecutionException {
+        if (leaseFile != null) {
+            try {
+                leases = PortLeaseRegistry.open(leaseFile, getBuildId());
+            } catch (IOException e) {
+                throw new MojoExecutionException("Cannot open port lease file " + leaseFile, e);
+            }
+        }
+    }
+
+    /**
+     * Identifies the current build among the builds run by this JVM.
+     */
+    private long getBuildId() {
+        if (mavenSession == null
+                || mavenSession.getRequest() == null
+                || mavenSession.getRequest().getStartTime() == null) {
+            return 0L;
+        }
+        return mavenSession.getRequest().getStartTime().getTime();
+    }
+
+    /**
+     * Drops the leases of ports whose reservation failed.
+     */
+    private void releaseLeases(List<ServerSocket> sockets) {
+        if (leaseFile == null || sockets.isEmpty()) {
+            return;
+        }
+        try (PortLeaseRegistry registry = PortLeaseRegistry.open(leaseFile, getBuildId())) {
+            for (ServerSocket socket : sockets) {
+                registry.release(socket.getLocalPort());
+            }
+        } catch (IOException e) {
+            getLog().warn("Cannot release the leases in " + leaseFile + ": " + e.getMessage());
+        }
+    }
+
+    private void closeLeaseRegistry() {
+        if (leases != null) {
+            try {
+                leases.close();
+            } catch (IOException e) {
+                getLog().warn("Cannot close port lease file " + leaseFile + ": " + e.getMessage());
+            } finally {
+                leases = null;
+            }
+        }
+    }
+
+    private boolean isLeased(int port) {
+        if (leases != null && leases.isLeased(port)) {
+            getLog().debug("Port " + port + " is leased by another build");
+            return true;
+        }
+        return false;
+    }
+
     private void createOutputDirectoryIfNotExist(File outputFile) throws IOException {
         File parentDirectory = new File(outputFile.getCanonicalFile().getParent());
 
@@ -194,7 +392,22 @@ public class ReserveListenerPortMojo extends AbstractMojo {
         }
     }
 
-    private ServerSocket getServerSocket() throws IOException, MojoExecutionException {
+    /**
+     * Binds one port for every name in a single critical section, and records them as reserved.
+     *
+     * @param names the names of the ports to reserve.
+     * @return the bound sockets in the order of the names, to be closed by the caller.
+     */
+    private List<ServerSocket> reservePorts(String[] names) throws MojoExecutionException {
+        if (deterministicPort && randomPort) {
+            throw new MojoExecutionException("Either randomPort or deterministicPort can be set, but not both.");
+        }
+        if (blockSize < 1) {
+            throw new MojoExecutionException("blockSize must be at least 1");
+        }
+        if ((deterministicPort || blockSize > 1) && minPortNumber == null && maxPortNumber == null) {
+            minPortNumber = FIRST_NON_ROOT_PORT_NUMBER;
+        }
         if (minPortNumber == null && maxPortNumber != null) {
             getLog().debug("minPortNumber unspecified: using default value " + FIRST_NON_ROOT_PORT_NUMBER);
             minPortNumber = FIRST_NON_ROOT_PORT_NUMBER;
@@ -203,112 +416,164 @@ public class ReserveListenerPortMojo extends AbstractMojo {
             getLog().debug("maxPortNumber unspecified: using default value " + MAX_PORT_NUMBER);
             maxPortNumber = MAX_PORT_NUMBER;
         }
-        if (minPortNumber == null && maxPortNumber == null) {
-            return new ServerSocket(0);
+        boolean ephemeral = minPortNumber == null;
+        if (!ephemeral && (minPortNumber > maxPortNumber || maxPortNumber > MAX_PORT_NUMBER)) {
+            throw new MojoExecutionException("Invalid port range between " + minPortNumber + " and " + maxPortNumber);
         }
-        if (randomPort) {
+
+        List<ServerSocket> sockets = new ArrayList<ServerSocket>(names.length * blockSize);
+        PortReservationMetrics metrics = new PortReservationMetrics(
+                ephemeral ? "ephemeral" : randomPort ? "random" : deterministicPort ? "deterministic" : "sequential");
+        PortBitmap busyPorts = skipBusyPorts ? readBusyPorts() : null;
+        // Might be synchronizing a bit too largely, but at least that defensive approach should prevent
+        // threading issues (essentially possible while put/getting the plugin ctx to get the reserved ports).
+        metrics.lockRequested();
+        try {
             synchronized (LOCK) {
-                List<Integer> availablePorts = randomPortList();
-                for (Iterator<Integer> iterator = availablePorts.iterator(); iterator.hasNext(); ) {
-                    int port = iterator.next();
-                    ServerSocket serverSocket = reservePort(port);
-                    iterator.remove();
-                    if (serverSocket != null) {
-                        return serverSocket;
-                    }
+                metrics.lockAcquired();
+                try {
+                    bindPorts(names, sockets, busyPorts, ephemeral, metrics);
+                } finally {
+                    metrics.lockReleased();
                 }
-                throw new MojoExecutionException(
-                        "Unable to find an available port between " + minPortNumber + " and " + maxPortNumber);
             }
-        } else {
-            // Might be synchronizing a bit too largely, but at least that defensive approach should prevent
-            // threading issues (essentially possible while put/getting the plugin ctx to get the reserved ports).
-            synchronized (LOCK) {
-                int min = getNextPortNumber();
-
-                for (int port = min; ; ++port) {
+        } finally {
+            // Failed reservations are the ones most worth looking into.
+            writeMetrics(metrics);
+        }
+        return sockets;
+    }
 
-                    ServerSocket serverSocket = reservePort(port);
-                    if (serverSocket != null) {
-                        return serverSocket;
+    /**
+     * Binds the ports of all names, with the reservation lock held.
+     */
+    private void bindPorts(
+            String[] names,
+            List<ServerSocket> sockets,
+            PortBitmap busyPorts,
+            boolean ephemeral,
+            PortReservationMetrics metrics)
+            throws MojoExecutionException {
+        PortBitmap reservedPorts = getReservedPorts();
+        PortBitmap excludedPorts = reservedPorts.copy();
+        if (busyPorts != null) {
+            excludedPorts.or(busyPorts);
+        }
+        PortProber prober = ephemeral
+                ? new PortProber(excludedPorts, 0, 0, null, this::isLeased)
+                : new PortProber(
+                        excludedPorts, minPortNumber, maxPortNumber, randomPort ? RANDOM : null, this::isLeased);
+        boolean reserved = false;
+        openLeaseRegistry();
+        try {
+            for (String name : names) {
+                if (blockSize > 1) {
+                    List<ServerSocket> block = deterministicPort
+                            ? prober.bindBlockFrom(getDeterministicPort(name), blockSize)
+                            : prober.bindBlock(blockSize);
+                    if (block == null) {
+                        metrics.outcome(PortReservationMetrics.EXHAUSTED);
+                        throw new MojoExecutionException("Unable to find " + blockSize
+                                + " consecutive available ports between " + minPortNumber + " and " + maxPortNumber);
                     }
+                    sockets.addAll(block);
+                    metrics.portReserved();
+                    continue;
+                }
+                ServerSocket socket;
+                if (ephemeral) {
+                    socket = prober.bindEphemeral();
+                } else if (deterministicPort) {
+                    socket = prober.bindFrom(getDeterministicPort(name));
+                } else {
+                    socket = prober.bindNext();
+                }
+                if (socket == null) {
+                    metrics.outcome(PortReservationMetrics.EXHAUSTED);
+                    throw new MojoExecutionException(
+                            "Unable to find an available port between " + minPortNumber + " and " + maxPortNumber);
                 }
+                sockets.add(socket);
+                metrics.portReserved();
+            }
+            for (ServerSocket socket : sockets) {
+                reservedPorts.set(socket.getLocalPort());
+                if (leases != null) {
+                    leases.lease(socket.getLocalPort(), leaseDuration * 1000L);
+                }
+            }
+            reserved = true;
+            metrics.outcome(PortReservationMetrics.RESERVED);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error getting an available port from system", e);
+        } finally {
+            closeLeaseRegistry();
+            if (!reserved) {
+                for (ServerSocket socket : sockets) {
+                    closeQuietly(socket);
+                }
+            }
+            if (prober.getFailedBinds() > 0) {
+                getLog().info("Skipped " + prober.getFailedBinds() + " of " + prober.getProbed()
+                        + " probed ports which were already in use");
+            }
+            metrics.probed(prober);
+            if (!ephemeral) {
+                metrics.range(minPortNumber, maxPortNumber, reservedPorts);
             }
         }
     }
 
-    private List<Integer> randomPortList() {
-
-        int difference = maxPortNumber - minPortNumber + 1;
-        List<Integer> portList = new ArrayList<Integer>(difference);
-        List<Integer> reservedPorts = getReservedPorts();
-        for (int i = 0; i < difference; i++) {
-            int port = minPortNumber + i;
-            if (!reservedPorts.contains(port)) {
-                portList.add(minPortNumber + i);
+    private void writeMetrics(PortReservationMetrics metrics) {
+        if (getLog().isDebugEnabled()) {
+            getLog().debug("Port reservation metrics: " + metrics.toJson());
+        }
+        if (metricsFile != null) {
+            try {
+                metrics.write(metricsFile);
+            } catch (IOException e) {
+                getLog().warn("Cannot write port reservation metrics to " + metricsFile + ": " + e.getMessage());
             }
         }
-        Collections.shuffle(portList);
-        return portList;
     }
 
-    public ServerSocket reservePort(int port) throws MojoExecutionException {
-
-        if (port > maxPortNumber) {
-            throw new MojoExecutionException(
-                    "Unable to find an available port between " + minPortNumber + " and " + maxPortNumber);
+    private PortBitmap readBusyPorts() {
+        if (!ProcNetPorts.isAvailable()) {
+            getLog().debug("Socket tables not available, busy ports cannot be skipped");
+            return null;
         }
         try {
-            ServerSocket serverSocket = new ServerSocket(port);
-            getLog().info("Port assigned " + port);
-            return serverSocket;
-        } catch (IOException ioe) {
-            getLog().info("Tried binding to port " + port + " without success. Trying next port.", ioe);
+            return ProcNetPorts.readBusyPorts();
+        } catch (IOException e) {
+            getLog().warn("Cannot read socket tables, busy ports are not skipped: " + e.getMessage());
+            return null;
         }
-        return null;
     }
 
-    private int getNextPortNumber() {
-        assert minPortNumber != null;
-
-        List<Integer> reservedPorts = getReservedPorts();
-        int nextPort = -1;
-        if (reservedPorts.isEmpty()) {
-            nextPort = minPortNumber;
-        } else {
-            nextPort = findAvailablePortNumber(minPortNumber, reservedPorts);
-        }
-        reservedPorts.add(nextPort);
-        getLog().debug("Next port: " + nextPort);
-        return nextPort;
-    }
-
-    @SuppressWarnings("unchecked")
-    private List<Integer> getReservedPorts() {
-
-        List<Integer> reservedPorts = (List<Integer>) getPluginContext().get(BUILD_HELPER_RESERVED_PORTS);
-        if (reservedPorts == null) {
-            reservedPorts = new ArrayList<Integer>();
-            getPluginContext().put(BUILD_HELPER_RESERVED_PORTS, reservedPorts);
-        }
-        return reservedPorts;
+    private int getDeterministicPort(String portName) {
+        CRC32 crc = new CRC32();
+        crc.update((project.getGroupId() + ':' + project.getArtifactId() + ':' + portName)
+                .getBytes(StandardCharsets.UTF_8));
+        int port = minPortNumber + (int) (crc.getValue() % (maxPortNumber - minPortNumber + 1));
+        getLog().debug("Deterministic port for " + portName + ": " + port);
+        return port;
     }
 
     /**
-     * Returns the first number available, starting at portNumberStartingPoint that's not already in the reservedPorts
-     * list.
+     * Returns the ports reserved so far by previous executions, shared through the plugin context.
      *
-     * @param portNumberStartingPoint first port number to start from.
-     * @param reservedPorts the ports already reserved.
-     * @return first number available not in the given list, starting at the given parameter.
+     * @return the bitmap of reserved ports.
      */
-    private int findAvailablePortNumber(Integer portNumberStartingPoint, List<Integer> reservedPorts) {
-        assert portNumberStartingPoint != null;
-        int candidate = portNumberStartingPoint;
-        while (reservedPorts.contains(candidate)) {
-            candidate++;
+    private PortBitmap getReservedPorts() {
+        // The plugin context is a raw map
+        @SuppressWarnings("unchecked")
+        Map<String, Object> pluginContext = getPluginContext();
+        PortBitmap reservedPorts = (PortBitmap) pluginContext.get(BUILD_HELPER_RESERVED_PORTS);
+        if (reservedPorts == null) {
+            reservedPorts = new PortBitmap();
+            pluginContext.put(BUILD_HELPER_RESERVED_PORTS, reservedPorts);
         }
-        return candidate;
+        return reservedPorts;
     }
 
     private void loadUrls() throws MojoExecutionException {
@@ -318,46 +583,101 @@ public class ReserveListenerPortMojo extends AbstractMojo {
     }
 
     private void load(UrlResource resource) throws MojoExecutionException {
-        if (resource.canBeOpened()) {
-            loadPortNamesFromResource(resource);
-        } else {
+        if (resource.isMissing()) {
             throw new MojoExecutionException("Port names could not be loaded from \"" + resource + "\"");
         }
-    }
 
-    private void loadPortNamesFromResource(UrlResource resource) throws MojoExecutionException {
-        try {
+        // The same lists are usually shared by all modules, so parse each of them only once per session
+        Map<String, CachedPortNames> cache = getPortNamesCache();
+        String key = resource.url.toExternalForm();
+        File file = resource.getFile();
+        CachedPortNames cached = cache.get(key);
+        if (cached != null && cached.isUpToDate(file)) {
             if (getLog().isDebugEnabled()) {
-                getLog().debug("Loading port names from " + resource);
+                getLog().debug("Using cached port names from " + resource);
             }
-            final InputStream stream = resource.getInputStream();
+        } else {
+            cached = new CachedPortNames(file);
+            cached.names = loadPortNamesFromResource(resource);
+            cache.put(key, cached);
+        }
 
-            try {
-                BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
-                List<String> names = new ArrayList<String>();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    line = line.trim();
-                    if (!line.isEmpty() && !line.replace(" ", "").startsWith("#")) {
-                        names.add(line);
-                    }
-                }
-                if (getLog().isDebugEnabled()) {
-                    getLog().debug("Loaded port names " + names);
-                }
-                String[] tPortNames = names.toArray(new String[portNames.length + names.size()]);
-                if (portNames.length > 0) {
-                    System.arraycopy(portNames, 0, tPortNames, names.size(), portNames.length);
+        List<String> names = cached.names;
+        String[] tPortNames = names.toArray(new String[portNames.length + names.size()]);
+        if (portNames.length > 0) {
+            System.arraycopy(portNames, 0, tPortNames, names.size(), portNames.length);
+        }
+        portNames = tPortNames;
+    }
+
+    private List<String> loadPortNamesFromResource(UrlResource resource) throws MojoExecutionException {
+        if (getLog().isDebugEnabled()) {
+            getLog().debug("Loading port names from " + resource);
+        }
+        final InputStream stream;
+        try {
+            stream = resource.openStream();
+        } catch (IOException e) {
+            throw new MojoExecutionException("Port names could not be loaded from \"" + resource + "\"", e);
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
+            List<String> names = new ArrayList<String>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.replace(" ", "").startsWith("#")) {
+                    names.add(line);
                 }
-                portNames = tPortNames;
-            } finally {
-                stream.close();
             }
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Loaded port names " + names);
+            }
+            return Collections.unmodifiableList(names);
         } catch (IOException e) {
             throw new MojoExecutionException("Error reading port names from \"" + resource + "\"", e);
         }
     }
 
+    /**
+     * Returns the parsed port name lists of the current session, keyed by URL. The cache is keyed by the class itself,
+     * so that different versions of this plugin used in the same session do not share it.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, CachedPortNames> getPortNamesCache() {
+        if (mavenSession == null || mavenSession.getRepositorySession() == null) {
+            return new HashMap<String, CachedPortNames>();
+        }
+        SessionData data = mavenSession.getRepositorySession().getData();
+        Object cache = data.get(CachedPortNames.class);
+        if (cache == null) {
+            data.set(CachedPortNames.class, null, new ConcurrentHashMap<String, CachedPortNames>());
+            cache = data.get(CachedPortNames.class);
+        }
+        return (Map<String, CachedPortNames>) cache;
+    }
+
+    /**
+     * Port names parsed from a URL. Lists read from files are reloaded when the file size or modification time
+     * changes.
+     */
+    private static final class CachedPortNames {
+        private final long lastModified;
+
+        private final long length;
+
+        private List<String> names;
+
+        CachedPortNames(File file) {
+            this.lastModified = file != null ? file.lastModified() : 0L;
+            this.length = file != null ? file.length() : 0L;
+        }
+
+        boolean isUpToDate(File file) {
+            return file == null || (file.lastModified() == lastModified && file.length() == length);
+        }
+    }
+
     private class UrlResource {
         private static final String CLASSPATH_PREFIX = "classpath:";
 
@@ -369,8 +689,6 @@ public class ReserveListenerPortMojo extends AbstractMojo {
 
         private String classpathUrl;
 
-        private InputStream stream;
-
         UrlResource(String url) throws MojoExecutionException {
             if (url.startsWith(CLASSPATH_PREFIX)) {
                 String resource = url.substring(CLASSPATH_PREFIX.length(), url.length());
@@ -394,23 +712,22 @@ public class ReserveListenerPortMojo extends AbstractMojo {
             }
         }
 
-        public InputStream getInputStream() throws IOException {
-            if (stream == null) {
-                stream = openStream();
-            }
-            return stream;
+        public boolean isMissing() {
+            return isMissingClasspathResouce;
         }
 
-        public boolean canBeOpened() {
-            if (isMissingClasspathResouce) {
-                return false;
+        /**
+         * @return the local file of a <code>file:</code> URL, {@code null} for other URLs.
+         */
+        public File getFile() {
+            if (!"file".equals(url.getProtocol())) {
+                return null;
             }
             try {
-                openStream().close();
-            } catch (IOException e) {
-                return false;
+                return new File(url.toURI());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                return new File(url.getPath());
             }
-            return true;
         }
 
         private InputStream openStream() throws IOException {
@@ -0,0 +1,337 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.shared.model.fileset.FileSet;
+import org.codehaus.plexus.util.StringUtils;
+
+/**
+ * Compares the source files of a {@link FileSet} with their targets. May be used from several threads at once.
+ *
+ * @since 3.6.2
+ */
+final class UpToDateCheck {
+    private final FileSet fileSet;
+
+    private final ContentDigests digests;
+
+    private final boolean aggregate;
+
+    private final Log log;
+
+    private final LongAccumulator newestSource = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    private final LongAccumulator oldestTarget = new LongAccumulator(Math::min, Long.MAX_VALUE);
+
+    /**
+     * Many sources may map to the same target, so the attributes of the last target are kept. Sources are walked one
+     * directory after the other, so this spares the reads of targets mapped from the same directory without keeping
+     * every target.
+     */
+    private volatile LastTarget lastTarget;
+
+    private final LongAdder compared = new LongAdder();
+
+    private final LongAdder targetStatNanos = new LongAdder();
+
+    private final List<StalePair> stalePairs = new ArrayList<>();
+
+    private final AtomicInteger staleCount = new AtomicInteger();
+
+    private int staleLimit = 1;
+
+    /**
+     * @param fileSet the file set the paths are relative to.
+     * @param digests the digests to compare contents with, or <code>null</code> to only compare timestamps.
+     * @param aggregate whether to compare the newest source with the oldest target rather than each pair.
+     * @param log the log to report each comparison to at debug level.
+     */
+    UpToDateCheck(FileSet fileSet, ContentDigests digests, boolean aggregate, Log log) {
+        this.fileSet = fileSet;
+        this.digests = digests;
+        this.aggregate = aggregate;
+        this.log = log;
+    }
+
+    ContentDigests getDigests() {
+        return digests;
+    }
+
+    /**
+     * Sets how many out of date pairs to record before the check is decided. In aggregate mode, the first one decides.
+     *
+     * @param staleLimit the number of pairs.
+     */
+    void setStaleLimit(int staleLimit) {
+        this.staleLimit = aggregate ? 1 : Math.max(1, staleLimit);
+    }
+
+    /**
+     * Tells whether enough out of date pairs have been found, so that no more files need to be compared.
+     *
+     * @return <code>true</code> if the check is decided.
+     */
+    boolean isDecided() {
+        return staleCount.get() >= staleLimit;
+    }
+
+    long getCompared() {
+        return compared.sum();
+    }
+
+    /**
+     * @return the time spent reading the attributes of targets. Sources are mostly read by the walk.
+     */
+    long getTargetStatNanos() {
+        return targetStatNanos.sum();
+    }
+
+    List<StalePair> getStalePairs() {
+        synchronized (stalePairs) {
+            return new ArrayList<>(stalePairs);
+        }
+    }
+
+    /**
+     * Checks whether a target is up to date with respect to its source.
+     *
+     * @param source the path of the source relative to the file set's directory.
+     * @param target the path of the target relative to the file set's output directory, may be <code>null</code>.
+     * @return <code>true</code> if the target is up to date.
+     */
+    boolean isUpToDate(String source, String target) {
+        File srcFile = getFile(false, source);
+        return isUpToDate(source, srcFile, readAttributes(srcFile), target);
+    }
+
+    /**
+     * Checks whether a target is up to date with respect to its source, whose attributes are already known.
+     *
+     * @param source the path of the source relative to the file set's directory.
+     * @param srcAttrs the attributes of the source.
+     * @param target the path of the target relative to the file set's output directory, may be <code>null</code>.
+     * @return <code>true</code> if the target is up to date.
+     */
+    boolean isUpToDate(String source, BasicFileAttributes srcAttrs, String target) {
+        return isUpToDate(source, getFile(false, source), srcAttrs, target);
+    }
+
+    /**
+     * Tells the outcome once all included files have been compared. Pairs are decided as they are compared, so this
+     * only matters in aggregate mode, where it compares the newest source with the oldest target.
+     *
+     * @return <code>true</code> if the targets are up to date.
+     */
+    boolean isUpToDate() {
+        if (staleCount.get() > 0) {
+            return false;
+        }
+        if (!aggregate) {
+            return true;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Newest source in " + fileSet.getDirectory() + " modified at " + newestSource.get()
+                    + ", oldest target modified at " + oldestTarget.get());
+        }
+        return newestSource.get() <= oldestTarget.get();
+    }
+
+    /**
+     * Adds a pair to the newest source and oldest target seen so far.
+     *
+     * @return <code>false</code> as soon as the targets are known to be out of date.
+     */
+    private boolean aggregate(BasicFileAttributes srcAttrs, File targetFile, BasicFileAttributes targetAttrs) {
+        if (srcAttrs == null) {
+            return false;
+        }
+        newestSource.accumulate(srcAttrs.lastModifiedTime().toMillis());
+        if (targetFile != null) {
+            if (targetAttrs == null) {
+                return false;
+            }
+            oldestTarget.accumulate(targetAttrs.lastModifiedTime().toMillis());
+        }
+        return newestSource.get() <= oldestTarget.get();
+    }
+
+    private boolean isUpToDate(String source, File srcFile, BasicFileAttributes srcAttrs, String target) {
+        compared.increment();
+        File targetFile = getFile(true, target);
+        BasicFileAttributes targetAttrs = readTargetAttributes(target, targetFile);
+        boolean isUpToDate = aggregate
+                ? aggregate(srcAttrs, targetFile, targetAttrs)
+                : isUpToDate(source, srcFile, srcAttrs, targetFile, targetAttrs);
+
+        if (!isUpToDate && staleCount.getAndIncrement() < staleLimit) {
+            synchronized (stalePairs) {
+                stalePairs.add(new StalePair(source, modified(srcAttrs), target, modified(targetAttrs)));
+            }
+        }
+
+        if (log.isDebugEnabled() && targetFile != null && !aggregate) {
+            StringBuilder msg = new StringBuilder(targetFile.getAbsolutePath());
+            if (targetAttrs == null) {
+                msg.append(" (nonexistent)");
+            }
+            msg.append("\n\tis ")
+                    .append(isUpToDate ? "up to date" : "out of date")
+                    .append(" with respect to \n\t")
+                    .append(srcFile.getAbsolutePath());
+            if (srcAttrs == null) {
+                msg.append(" (nonexistent)");
+            }
+
+            log.debug(msg);
+        }
+
+        return isUpToDate;
+    }
+
+    private boolean isUpToDate(
+            String path, File srcFile, BasicFileAttributes srcAttrs, File targetFile, BasicFileAttributes targetAttrs) {
+        if (srcAttrs == null) {
+            return false;
+        }
+        if (targetFile == null) {
+            return true;
+        }
+        long srcModified = srcAttrs.lastModifiedTime().toMillis();
+        long targetModified =
+                targetAttrs == null ? 0L : targetAttrs.lastModifiedTime().toMillis();
+        if (digests == null) {
+            return srcModified <= targetModified;
+        }
+        try {
+            // Digest even when the timestamps agree, so that the manifest is complete once the targets are up to date.
+            boolean unchanged = digests.isUnchanged(path, srcFile, srcAttrs.size(), srcModified);
+            return targetAttrs != null && (srcModified <= targetModified || unchanged);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot digest " + srcFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    private BasicFileAttributes readTargetAttributes(String target, File targetFile) {
+        if (targetFile == null) {
+            return null;
+        }
+        LastTarget last = lastTarget;
+        if (last != null && last.path.equals(target)) {
+            return last.attrs;
+        }
+        long start = System.nanoTime();
+        BasicFileAttributes attrs = readAttributes(targetFile);
+        targetStatNanos.add(System.nanoTime() - start);
+        lastTarget = new LastTarget(target, attrs);
+        return attrs;
+    }
+
+    private File getFile(boolean useOutputDirectory, String path) {
+        String baseDir = useOutputDirectory && !StringUtils.isBlank(fileSet.getOutputDirectory())
+                ? fileSet.getOutputDirectory()
+                : fileSet.getDirectory();
+        return path == null ? null : new File(baseDir, path);
+    }
+
+    /**
+     * Reads the attributes of a file with a single call to the file system.
+     *
+     * @return the attributes, or <code>null</code> if the file does not exist or cannot be accessed.
+     */
+    private BasicFileAttributes readAttributes(File file) {
+        if (file == null) {
+            return null;
+        }
+        try {
+            return Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static long modified(BasicFileAttributes attrs) {
+        return attrs == null ? -1L : attrs.lastModifiedTime().toMillis();
+    }
+
+    /**
+     * A target found out of date, with the modification times that made it so. A time of <code>-1</code> stands for
+     * a file that does not exist.
+     */
+    static final class StalePair {
+        private final String source;
+
+        private final long sourceModified;
+
+        private final String target;
+
+        private final long targetModified;
+
+        private StalePair(String source, long sourceModified, String target, long targetModified) {
+            this.source = source;
+            this.sourceModified = sourceModified;
+            this.target = target;
+            this.targetModified = targetModified;
+        }
+
+        String getSource() {
+            return source;
+        }
+
+        long getSourceModified() {
+            return sourceModified;
+        }
+
+        String getTarget() {
+            return target;
+        }
+
+        long getTargetModified() {
+            return targetModified;
+        }
+    }
+
+    private static final class LastTarget {
+        private final String path;
+
+        private final BasicFileAttributes attrs;
+
+        private LastTarget(String path, BasicFileAttributes attrs) {
+            this.path = path;
+            this.attrs = attrs;
+        }
+    }
+}
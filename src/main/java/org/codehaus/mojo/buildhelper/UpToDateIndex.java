@@ -0,0 +1,269 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.apache.maven.shared.model.fileset.FileSet;
+import org.apache.maven.shared.model.fileset.Mapper;
+
+/**
+ * On-disk index of the files included by a {@link FileSet}, so that an unchanged tree need not be rescanned.
+ * <p>
+ * The index records the modification time of every directory the scan of the file set descends into together with the
+ * mapping of included files to their targets. Adding, removing or renaming an entry changes the modification time of
+ * its parent directory, and directories the scan does not descend into cannot hold included files, so as long as none
+ * of the recorded directories has changed, the recorded mapping is still the one a fresh scan would yield. The index
+ * is only reused as a whole: a single changed directory invalidates it, and the whole tree is scanned again rather
+ * than only the changed directories.
+ *
+ * @since 3.6.2
+ */
+final class UpToDateIndex {
+    private static final int MAGIC = 0x42485549;
+
+    private static final int VERSION = 1;
+
+    /**
+     * Directories modified this recently are not trusted, as further changes within the file system's timestamp
+     * granularity would go unnoticed.
+     */
+    private static final long TIMESTAMP_GRANULARITY = 2000L;
+
+    private final File file;
+
+    private final File baseDir;
+
+    private final String fingerprint;
+
+    /**
+     * The state directory relative to the base directory, or <code>null</code> if it is not below it.
+     */
+    private final String ignoredDirectory;
+
+    UpToDateIndex(File stateDirectory, FileSet fileSet) {
+        this.baseDir = new File(fileSet.getDirectory());
+        this.fingerprint = fingerprint(fileSet, baseDir);
+        this.file = new File(stateDirectory, key(fingerprint) + ".idx");
+        Path base = baseDir.getAbsoluteFile().toPath().normalize();
+        Path state = stateDirectory.getAbsoluteFile().toPath().normalize();
+        this.ignoredDirectory = state.startsWith(base) ? base.relativize(state).toString() : null;
+    }
+
+    /**
+     * Derives a file name stem for state kept about a file set.
+     *
+     * @param fileSet the file set.
+     * @return a short key which only changes when the file set's configuration does.
+     */
+    static String key(FileSet fileSet) {
+        return key(fingerprint(fileSet));
+    }
+
+    /**
+     * Describes the configuration of a file set, for state kept in memory about it.
+     *
+     * @param fileSet the file set.
+     * @return a string which only changes when the file set's configuration does.
+     */
+    static String fingerprint(FileSet fileSet) {
+        return fingerprint(fileSet, new File(fileSet.getDirectory()));
+    }
+
+    private static String key(String fingerprint) {
+        CRC32 crc = new CRC32();
+        crc.update(fingerprint.getBytes(StandardCharsets.UTF_8));
+        return String.format("%08x", crc.getValue());
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Loads the recorded mapping of included files.
+     *
+     * @return the mapping of source to target paths, or <code>null</code> if there is no index or any of the recorded
+     *         directories has changed since it was written.
+     * @throws IOException if the index cannot be read.
+     */
+    Map<String, String> load() throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !fingerprint.equals(in.readUTF())) {
+                return null;
+            }
+            int directories = in.readInt();
+            for (int i = 0; i < directories; i++) {
+                Path dir = new File(baseDir, in.readUTF()).toPath();
+                long lastModified = in.readLong();
+                try {
+                    if (Files.getLastModifiedTime(dir).toMillis() != lastModified) {
+                        return null;
+                    }
+                } catch (NoSuchFileException e) {
+                    return null;
+                }
+            }
+            int files = in.readInt();
+            Map<String, String> includedFiles = new LinkedHashMap<>(files * 4 / 3 + 1);
+            for (int i = 0; i < files; i++) {
+                String source = in.readUTF();
+                includedFiles.put(source, in.readBoolean() ? in.readUTF() : null);
+            }
+            return includedFiles;
+        }
+    }
+
+    /**
+     * Starts recording the modification times of the directories a scan of the file set descends into.
+     *
+     * @return the snapshot to hand the directories to as the scan lists them.
+     */
+    Snapshot snapshot() {
+        return new Snapshot(ignoredDirectory);
+    }
+
+    /**
+     * Writes the index.
+     *
+     * @param directories the directory modification times taken before the scan.
+     * @param includedFiles the mapping of source to target paths the scan yielded.
+     * @throws IOException if the index cannot be written.
+     */
+    void store(Map<String, Long> directories, Map<String, String> includedFiles) throws IOException {
+        File parent = file.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory " + parent);
+        }
+        File temp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            try (DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(fingerprint);
+                out.writeInt(directories.size());
+                for (Map.Entry<String, Long> entry : directories.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue());
+                }
+                out.writeInt(includedFiles.size());
+                for (Map.Entry<String, String> entry : includedFiles.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeBoolean(entry.getValue() != null);
+                    if (entry.getValue() != null) {
+                        out.writeUTF(entry.getValue());
+                    }
+                }
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * The modification times of the directories a scan descends into. Each directory is added before it is listed, so
+     * that changes made during the scan invalidate the index. The state directory is left out, as writing the index
+     * changes it.
+     */
+    static final class Snapshot {
+        private final Map<String, Long> directories = new ConcurrentHashMap<>();
+
+        private final String ignoredDirectory;
+
+        private final long notAfter = System.currentTimeMillis() - TIMESTAMP_GRANULARITY;
+
+        private volatile boolean recent;
+
+        private Snapshot(String ignoredDirectory) {
+            this.ignoredDirectory = ignoredDirectory;
+        }
+
+        /**
+         * Records a directory. May be called from several threads at once.
+         *
+         * @param name the path of the directory relative to the base directory, empty for the base directory.
+         * @param attrs the attributes of the directory.
+         */
+        void add(String name, BasicFileAttributes attrs) {
+            if (ignoredDirectory != null
+                    && (name.equals(ignoredDirectory) || name.startsWith(ignoredDirectory + File.separator))) {
+                return;
+            }
+            long lastModified = attrs.lastModifiedTime().toMillis();
+            if (lastModified > notAfter) {
+                recent = true;
+            } else if (!recent) {
+                directories.put(name, lastModified);
+            }
+        }
+
+        /**
+         * Returns the recorded directories, once the scan is complete.
+         *
+         * @return the modification times keyed by relative path, or <code>null</code> if the tree cannot be indexed
+         *         yet.
+         */
+        Map<String, Long> getDirectories() {
+            return recent || directories.isEmpty() ? null : directories;
+        }
+    }
+
+    private static String fingerprint(FileSet fileSet, File baseDir) {
+        StringBuilder sb = new StringBuilder(baseDir.getAbsolutePath());
+        sb.append('|').append(fileSet.getOutputDirectory());
+        sb.append('|').append(fileSet.getIncludes());
+        sb.append('|').append(fileSet.getExcludes());
+        sb.append('|').append(fileSet.isUseDefaultExcludes());
+        sb.append('|').append(fileSet.isFollowSymlinks());
+        Mapper mapper = fileSet.getMapper();
+        if (mapper != null) {
+            sb.append('|').append(mapper.getType());
+            sb.append('|').append(mapper.getClassname());
+            sb.append('|').append(mapper.getFrom());
+            sb.append('|').append(mapper.getTo());
+        }
+        return sb.toString();
+    }
+}
@@ -62,9 +62,7 @@ public class UpToDatePropertiesMojo extends AbstractUpToDatePropertyMojo {
         }
 
         if (upToDatePropertySettings != null) {
-            for (UpToDatePropertySetting config : upToDatePropertySettings) {
-                this.execute(config);
-            }
+            this.execute(upToDatePropertySettings);
         }
     }
 }
@@ -69,6 +69,15 @@ public class UpToDatePropertyMojo extends AbstractUpToDatePropertyMojo {
     @Parameter(alias = "else")
     private String elseValue;
 
+    /**
+     * Compare the newest source with the oldest target instead of each source with its own target. This suits mappers
+     * which map many sources to few targets, such as <code>merge</code>, and needs no memory per file.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(defaultValue = "false")
+    private boolean aggregate;
+
     /** {@inheritDoc} */
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
@@ -81,6 +90,7 @@ public class UpToDatePropertyMojo extends AbstractUpToDatePropertyMojo {
         config.setName(name);
         config.setValue(value);
         config.setElse(elseValue);
+        config.setAggregate(aggregate);
         config.setFileSet(fileSet);
         execute(config);
     }
@@ -59,6 +59,15 @@ public final class UpToDatePropertySetting {
     @Parameter(alias = "else")
     private String elseValue;
 
+    /**
+     * Compare the newest source with the oldest target instead of each source with its own target. This suits mappers
+     * which map many sources to few targets, such as <code>merge</code>, and needs no memory per file.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(defaultValue = "false")
+    private boolean aggregate;
+
     public UpToDatePropertySetting() {}
 
     public String getName() {
@@ -93,6 +102,14 @@ public final class UpToDatePropertySetting {
         this.elseValue = elseValue;
     }
 
+    public boolean isAggregate() {
+        return aggregate;
+    }
+
+    public void setAggregate(boolean aggregate) {
+        this.aggregate = aggregate;
+    }
+
     void validate() {
         if (StringUtils.isBlank(name)) {
             throw new IllegalArgumentException("name required");
@@ -0,0 +1,221 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Report of the outcome of the up-to-date checks of an execution: for each setting, the first targets found out of
+ * date and statistics about the scan. Written as CSV if the file name ends with <code>.csv</code>, as JSON otherwise.
+ *
+ * @since 3.6.2
+ */
+final class UpToDateReport {
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Adds the outcome of a setting.
+     *
+     * @param name the name of the property.
+     * @param directory the directory of the file set.
+     * @param upToDate whether the targets were found up to date.
+     * @param indexed whether the files were taken from the index rather than walked.
+     * @param endedEarly whether the scan ended before all files were compared.
+     * @param walkNanos the time spent walking and comparing.
+     * @param check the check, holding the number of files compared, the time spent reading the attributes of
+     *            targets and the stale pairs.
+     */
+    void add(
+            String name,
+            String directory,
+            boolean upToDate,
+            boolean indexed,
+            boolean endedEarly,
+            long walkNanos,
+            UpToDateCheck check) {
+        entries.add(new Entry(name, directory, upToDate, indexed, endedEarly, walkNanos, check));
+    }
+
+    void write(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory " + parent);
+        }
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(file.getName().toLowerCase(Locale.ROOT).endsWith(".csv") ? toCsv() : toJson());
+        }
+    }
+
+    String toJson() {
+        StringBuilder json = new StringBuilder("{\n  \"settings\": [");
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            json.append(i == 0 ? "\n" : ",\n");
+            json.append("    {\n");
+            json.append("      \"name\": ").append(quote(entry.name)).append(",\n");
+            json.append("      \"directory\": ").append(quote(entry.directory)).append(",\n");
+            json.append("      \"upToDate\": ").append(entry.upToDate).append(",\n");
+            json.append("      \"indexed\": ").append(entry.indexed).append(",\n");
+            json.append("      \"filesVisited\": ").append(entry.filesVisited).append(",\n");
+            json.append("      \"walkMillis\": ")
+                    .append(millis(entry.walkNanos))
+                    .append(",\n");
+            json.append("      \"targetStatMillis\": ")
+                    .append(millis(entry.targetStatNanos))
+                    .append(",\n");
+            json.append("      \"endedEarly\": ").append(entry.endedEarly).append(",\n");
+            json.append("      \"stale\": [");
+            for (int j = 0; j < entry.stalePairs.size(); j++) {
+                UpToDateCheck.StalePair pair = entry.stalePairs.get(j);
+                json.append(j == 0 ? "\n" : ",\n");
+                json.append("        {\"source\": ").append(quote(pair.getSource()));
+                json.append(", \"sourceModified\": ").append(pair.getSourceModified());
+                json.append(", \"target\": ").append(quote(pair.getTarget()));
+                json.append(", \"targetModified\": ")
+                        .append(pair.getTargetModified())
+                        .append('}');
+            }
+            json.append(entry.stalePairs.isEmpty() ? "]\n" : "\n      ]\n");
+            json.append("    }");
+        }
+        return json.append(entries.isEmpty() ? "]\n}\n" : "\n  ]\n}\n").toString();
+    }
+
+    String toCsv() {
+        StringBuilder csv =
+                new StringBuilder("name,directory,upToDate,indexed,filesVisited,walkMillis,targetStatMillis,"
+                        + "endedEarly,source,sourceModified,target,targetModified\n");
+        for (Entry entry : entries) {
+            String prefix = csv(entry.name)
+                    + ','
+                    + csv(entry.directory)
+                    + ','
+                    + entry.upToDate
+                    + ','
+                    + entry.indexed
+                    + ','
+                    + entry.filesVisited
+                    + ','
+                    + millis(entry.walkNanos)
+                    + ','
+                    + millis(entry.targetStatNanos)
+                    + ','
+                    + entry.endedEarly
+                    + ',';
+            if (entry.stalePairs.isEmpty()) {
+                csv.append(prefix).append(",,,\n");
+            }
+            for (UpToDateCheck.StalePair pair : entry.stalePairs) {
+                csv.append(prefix)
+                        .append(csv(pair.getSource()))
+                        .append(',')
+                        .append(pair.getSourceModified())
+                        .append(',')
+                        .append(csv(pair.getTarget()))
+                        .append(',')
+                        .append(pair.getTargetModified())
+                        .append('\n');
+            }
+        }
+        return csv.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static final class Entry {
+        private final String name;
+
+        private final String directory;
+
+        private final boolean upToDate;
+
+        private final boolean indexed;
+
+        private final boolean endedEarly;
+
+        private final long walkNanos;
+
+        private final long targetStatNanos;
+
+        private final long filesVisited;
+
+        private final List<UpToDateCheck.StalePair> stalePairs;
+
+        private Entry(
+                String name,
+                String directory,
+                boolean upToDate,
+                boolean indexed,
+                boolean endedEarly,
+                long walkNanos,
+                UpToDateCheck check) {
+            this.name = name;
+            this.directory = directory;
+            this.upToDate = upToDate;
+            this.indexed = indexed;
+            this.endedEarly = endedEarly;
+            this.walkNanos = walkNanos;
+            this.targetStatNanos = check.getTargetStatNanos();
+            this.filesVisited = check.getCompared();
+            this.stalePairs = check.getStalePairs();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Wait until network ports, typically reserved by <code>reserve-network-port</code>, accept connections. All ports are
+ * connected to concurrently with non-blocking sockets multiplexed on a single selector, and refused connections are
+ * retried until the timeout expires.
+ *
+ * @since 3.6.2
+ */
+@Mojo(name = "wait-for-network-port", defaultPhase = LifecyclePhase.PRE_INTEGRATION_TEST, threadSafe = true)
+public class WaitForNetworkPortMojo extends AbstractMojo {
+    /**
+     * The names of the properties holding the ports to wait for, connected to on {@link #hostname}.
+     *
+     * @since 3.6.2
+     */
+    @Parameter
+    private String[] portNames = new String[0];
+
+    /**
+     * The host to connect to for the ports given by {@link #portNames}.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(defaultValue = "localhost")
+    private String hostname = "localhost";
+
+    /**
+     * Further endpoints to wait for, in the form <code>host:port</code>.
+     *
+     * @since 3.6.2
+     */
+    @Parameter
+    private String[] endpoints = new String[0];
+
+    /**
+     * The maximum number of seconds to wait for all ports together.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(property = "buildhelper.waitTimeout", defaultValue = "60")
+    private int timeout = 60;
+
+    /**
+     * The number of milliseconds to wait before connecting again to a port which refused the connection.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(defaultValue = "200")
+    private int retryInterval = 200;
+
+    /**
+     * Disables the plug-in execution.
+     *
+     * @since 3.6.2
+     */
+    @Parameter(property = "buildhelper.waitfornetworkport.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Parameter(readonly = true, defaultValue = "${project}")
+    private MavenProject project;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            getLog().info("wait-for-network-port is skipped.");
+            return;
+        }
+
+        List<Endpoint> pending = new ArrayList<Endpoint>();
+        for (String portName : portNames) {
+            String port = project.getProperties().getProperty(portName);
+            if (port == null) {
+                throw new MojoExecutionException("Port property " + portName + " is not defined");
+            }
+            pending.add(new Endpoint(portName, hostname, parsePort(port, portName)));
+        }
+        for (String endpoint : endpoints) {
+            int colon = endpoint.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new MojoExecutionException("Endpoint " + endpoint + " is not of the form host:port");
+            }
+            pending.add(new Endpoint(
+                    endpoint, endpoint.substring(0, colon), parsePort(endpoint.substring(colon + 1), endpoint)));
+        }
+        if (pending.isEmpty()) {
+            getLog().info("No ports to wait for.");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        long deadline = start + timeout * 1000L;
+        try (Selector selector = Selector.open()) {
+            for (Endpoint endpoint : pending) {
+                connect(endpoint, selector, start);
+            }
+            while (true) {
+                long now = System.currentTimeMillis();
+                for (Iterator<Endpoint> it = pending.iterator(); it.hasNext(); ) {
+                    Endpoint endpoint = it.next();
+                    if (endpoint.ready) {
+                        getLog().info("Port " + endpoint + " is ready after " + (now - start) + " ms");
+                        it.remove();
+                    } else if (endpoint.channel == null && endpoint.retryAt <= now) {
+                        connect(endpoint, selector, now);
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                if (now >= deadline) {
+                    throw new MojoFailureException("Timed out after " + timeout + " s waiting for ports " + pending);
+                }
+
+                long wait = deadline - now;
+                for (Endpoint endpoint : pending) {
+                    if (endpoint.channel == null) {
+                        wait = Math.min(wait, endpoint.retryAt - now);
+                    }
+                }
+                selector.select(Math.max(1L, wait));
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Endpoint endpoint = (Endpoint) key.attachment();
+                    try {
+                        if (endpoint.channel.finishConnect()) {
+                            endpoint.ready = true;
+                            endpoint.close();
+                        }
+                    } catch (IOException e) {
+                        endpoint.retry(System.currentTimeMillis() + retryInterval);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error waiting for network ports", e);
+        } finally {
+            for (Endpoint endpoint : pending) {
+                endpoint.close();
+            }
+        }
+    }
+
+    private void connect(Endpoint endpoint, Selector selector, long now) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        endpoint.channel = channel;
+        try {
+            channel.configureBlocking(false);
+            if (channel.connect(new InetSocketAddress(endpoint.host, endpoint.port))) {
+                endpoint.ready = true;
+                endpoint.close();
+            } else {
+                channel.register(selector, SelectionKey.OP_CONNECT, endpoint);
+            }
+        } catch (IOException | RuntimeException e) {
+            // refused right away or host not resolvable yet
+            getLog().debug("Port " + endpoint + " not ready: " + e);
+            endpoint.retry(now + retryInterval);
+        }
+    }
+
+    private static int parsePort(String port, String name) throws MojoExecutionException {
+        try {
+            return Integer.parseInt(port.trim());
+        } catch (NumberFormatException e) {
+            throw new MojoExecutionException("Invalid port " + port + " for " + name);
+        }
+    }
+
+    private static final class Endpoint {
+        private final String name;
+
+        private final String host;
+
+        private final int port;
+
+        private SocketChannel channel;
+
+        private long retryAt;
+
+        private boolean ready;
+
+        Endpoint(String name, String host, int port) {
+            this.name = name;
+            this.host = host;
+            this.port = port;
+        }
+
+        void retry(long retryAt) {
+            close();
+            this.retryAt = retryAt;
+        }
+
+        void close() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    // nothing was sent, nothing to report
+                }
+                channel = null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name.equals(host + ":" + port) ? name : name + " (" + host + ":" + port + ")";
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentDigestsTest {
+    @TempDir
+    File tempDir;
+
+    @Test
+    void touchedFilesWithSameContentAreUnchanged() throws Exception {
+        File manifest = new File(tempDir, "state/files.digests");
+        File source = new File(tempDir, "a.txt");
+        Files.write(source.toPath(), "hello".getBytes(StandardCharsets.UTF_8));
+
+        ContentDigests digests = ContentDigests.load(manifest);
+        assertFalse(digests.isUnchanged("a.txt", source, source.length(), 1000L));
+        digests.save();
+
+        digests = ContentDigests.load(manifest);
+        assertTrue(digests.isUnchanged("a.txt", source, source.length(), 2000L));
+
+        Files.write(source.toPath(), "world".getBytes(StandardCharsets.UTF_8));
+        digests = ContentDigests.load(manifest);
+        assertFalse(digests.isUnchanged("a.txt", source, source.length(), 3000L));
+    }
+}
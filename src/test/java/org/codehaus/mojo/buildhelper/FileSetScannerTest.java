@@ -0,0 +1,76 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.shared.model.fileset.FileSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileSetScannerTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void visitsIncludedFiles() throws Exception {
+        for (String path : Arrays.asList("a.txt", "b.java", "dir/c.txt", "dirY/d.txt", ".git/e.txt")) {
+            Files.createDirectories(tempDir.resolve(path).getParent());
+            Files.createFile(tempDir.resolve(path));
+        }
+        FileSet fileSet = new FileSet();
+        fileSet.setDirectory(tempDir.toString());
+        fileSet.addInclude("**/*.txt");
+        fileSet.addExclude("*Y/");
+
+        List<String> visited = new ArrayList<>();
+        assertTrue(new FileSetScanner(fileSet).scan((source, attrs, target) -> visited.add(target)));
+        Collections.sort(visited);
+        assertEquals(Arrays.asList("a.txt", "dir" + File.separator + "c.txt"), visited);
+    }
+
+    @Test
+    void visitorEndsTheWalk() throws Exception {
+        for (String path : Arrays.asList("a.txt", "b.txt", "c.txt")) {
+            Files.createFile(tempDir.resolve(path));
+        }
+        FileSet fileSet = new FileSet();
+        fileSet.setDirectory(tempDir.toString());
+
+        int[] visited = {0};
+        assertFalse(new FileSetScanner(fileSet).scan((source, attrs, target) -> ++visited[0] < 2));
+        assertEquals(2, visited[0]);
+    }
+}
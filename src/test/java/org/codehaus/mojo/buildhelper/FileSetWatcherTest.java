@@ -0,0 +1,114 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FileSetWatcherTest {
+    @TempDir
+    Path tempDir;
+
+    private FileSetWatcher create() throws Exception {
+        Files.createDirectories(tempDir.resolve("src/sub/dir"));
+        Files.createDirectories(tempDir.resolve("out"));
+        Path state = tempDir.resolve("out/state");
+        FileSetWatcher watcher = FileSetWatcher.create(
+                tempDir.resolve("src"), tempDir.resolve("out"), name -> true, Collections.singleton(state), state);
+        // A polling watch service is not used.
+        assumeTrue(watcher != null);
+        return watcher;
+    }
+
+    @Test
+    void changesMadeRightBeforeThePollAreReported() throws Exception {
+        try (FileSetWatcher watcher = create()) {
+            assertEquals(Collections.emptySet(), watcher.poll());
+            Files.createFile(tempDir.resolve("src/sub/a.txt"));
+            assertEquals(Collections.singleton(Paths.get("sub")), watcher.poll());
+            assertEquals(Collections.emptySet(), watcher.poll());
+            // Changes of the state of the checks do not count.
+            Files.createFile(tempDir.resolve("out/state/index.idx"));
+            assertEquals(Collections.emptySet(), watcher.poll());
+        }
+    }
+
+    @Test
+    void deletedDirectoriesRequireAFullCheck() throws Exception {
+        try (FileSetWatcher watcher = create()) {
+            Files.delete(tempDir.resolve("src/sub/dir"));
+            assertNull(watcher.poll());
+            // The events are no longer consumed in order.
+            assertNull(watcher.poll());
+        }
+    }
+
+    @Test
+    void watchersOfDeletedDirectoriesAreDropped() throws Exception {
+        FileSetWatcher watcher = create();
+        try {
+            FileSetWatcher.put("watchersOfDeletedDirectoriesAreDropped", watcher);
+            assertSame(watcher, FileSetWatcher.get("watchersOfDeletedDirectoriesAreDropped"));
+            Files.delete(tempDir.resolve("src/sub/dir"));
+            Files.delete(tempDir.resolve("src/sub"));
+            Files.delete(tempDir.resolve("src"));
+            assertNull(FileSetWatcher.get("watchersOfDeletedDirectoriesAreDropped"));
+        } finally {
+            FileSetWatcher.put("watchersOfDeletedDirectoriesAreDropped", null);
+            watcher.close();
+        }
+    }
+
+    @Test
+    void markerDirectoriesAreDeletedWhenAllWatchersAreClosed() throws Exception {
+        FileSetWatcher watcher = create();
+        try {
+            FileSetWatcher.put("markerDirectoriesAreDeletedWhenAllWatchersAreClosed", watcher);
+            assertEquals(1, count(tempDir.resolve("out/state")));
+            FileSetWatcher.closeAll();
+            assertEquals(0, count(tempDir.resolve("out/state")));
+            assertNull(FileSetWatcher.get("markerDirectoriesAreDeletedWhenAllWatchersAreClosed"));
+        } finally {
+            watcher.close();
+        }
+    }
+
+    private static long count(Path dir) throws Exception {
+        try (Stream<Path> entries = Files.list(dir)) {
+            return entries.count();
+        }
+    }
+}
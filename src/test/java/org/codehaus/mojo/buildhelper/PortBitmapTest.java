@@ -0,0 +1,118 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PortBitmapTest {
+
+    @Test
+    void setAndClear() {
+        PortBitmap bitmap = new PortBitmap();
+        assertFalse(bitmap.isSet(0));
+
+        bitmap.set(0);
+        bitmap.set(63);
+        bitmap.set(64);
+        bitmap.set(65535);
+        assertTrue(bitmap.isSet(0));
+        assertTrue(bitmap.isSet(63));
+        assertTrue(bitmap.isSet(64));
+        assertTrue(bitmap.isSet(65535));
+        assertFalse(bitmap.isSet(1));
+
+        bitmap.clear(63);
+        assertFalse(bitmap.isSet(63));
+        assertTrue(bitmap.isSet(64));
+    }
+
+    @Test
+    void nextClearSkipsReservedPorts() {
+        PortBitmap bitmap = new PortBitmap();
+        for (int port = 30000; port < 30200; port++) {
+            bitmap.set(port);
+        }
+
+        assertEquals(30200, bitmap.nextClear(30000, 40000));
+        assertEquals(29999, bitmap.nextClear(29999, 40000));
+        assertEquals(-1, bitmap.nextClear(30000, 30199));
+    }
+
+    @Test
+    void nextClearRunFindsConsecutivePorts() {
+        PortBitmap bitmap = new PortBitmap();
+        bitmap.set(10002);
+        bitmap.set(10070);
+
+        assertEquals(10003, bitmap.nextClearRun(10000, 20000, 3));
+        assertEquals(10000, bitmap.nextClearRun(10000, 20000, 2));
+        assertEquals(10071, bitmap.nextClearRun(10003, 20000, 68));
+        assertEquals(-1, bitmap.nextClearRun(10003, 10071, 68));
+        assertEquals(10070, bitmap.nextSet(10003, 20000));
+    }
+
+    @Test
+    void countClearHonoursRangeBounds() {
+        PortBitmap bitmap = new PortBitmap();
+        bitmap.set(1030);
+        bitmap.set(1100);
+
+        assertEquals(1, bitmap.countClear(1030, 1031));
+        assertEquals(97, bitmap.countClear(1010, 1108));
+        assertEquals(65536, new PortBitmap().countClear(0, 65535));
+    }
+
+    @Test
+    void randomClearOnlyReturnsFreePortsInRange() {
+        PortBitmap bitmap = new PortBitmap();
+        for (int port = 2000; port <= 2100; port += 2) {
+            bitmap.set(port);
+        }
+        Random random = new Random(42);
+        PortBitmap seen = new PortBitmap();
+        for (int i = 0; i < 1000; i++) {
+            int port = bitmap.randomClear(2000, 2100, random);
+            assertTrue(port > 2000 && port < 2100 && port % 2 == 1, "unexpected port " + port);
+            seen.set(port);
+        }
+        // every one of the 50 odd ports has been picked at least once
+        assertEquals(51, seen.countClear(2000, 2100));
+    }
+
+    @Test
+    void randomClearReturnsMinusOneWhenRangeIsFull() {
+        PortBitmap bitmap = new PortBitmap();
+        bitmap.set(5000);
+        bitmap.set(5001);
+
+        assertEquals(-1, bitmap.randomClear(5000, 5001, new Random()));
+    }
+}
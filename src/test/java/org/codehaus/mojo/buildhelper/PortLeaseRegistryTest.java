@@ -0,0 +1,75 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PortLeaseRegistryTest {
+    @TempDir
+    File tempDir;
+
+    @Test
+    void leasesSurviveReopening() throws Exception {
+        File file = new File(tempDir, "leases");
+        try (PortLeaseRegistry registry = PortLeaseRegistry.open(file, 1L)) {
+            assertFalse(registry.isLeased(30000));
+            registry.lease(30000, 60000L);
+        }
+
+        try (PortLeaseRegistry registry = PortLeaseRegistry.open(file, 1L)) {
+            assertTrue(registry.isLeased(30000));
+            assertFalse(registry.isLeased(30001));
+            registry.release(30000);
+            assertFalse(registry.isLeased(30000));
+        }
+    }
+
+    @Test
+    void expiredLeasesAreReclaimed() throws Exception {
+        try (PortLeaseRegistry registry = PortLeaseRegistry.open(new File(tempDir, "leases"), 1L)) {
+            registry.lease(40000, -1L);
+            assertFalse(registry.isLeased(40000));
+        }
+    }
+
+    @Test
+    void leasesOfEarlierBuildsOfThisProcessAreReclaimed() throws Exception {
+        File file = new File(tempDir, "leases");
+        try (PortLeaseRegistry registry = PortLeaseRegistry.open(file, 1L)) {
+            registry.lease(30000, 60000L);
+            assertTrue(registry.isLeased(30000));
+        }
+
+        try (PortLeaseRegistry registry = PortLeaseRegistry.open(file, 2L)) {
+            assertFalse(registry.isLeased(30000));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PortProberTest {
+    private static final int RANGE_SIZE = 6;
+
+    private final List<ServerSocket> sockets = new ArrayList<ServerSocket>();
+
+    private int minPort;
+
+    @AfterEach
+    void closeSockets() throws IOException {
+        for (ServerSocket socket : sockets) {
+            socket.close();
+        }
+    }
+
+    @Test
+    void bindFromWrapsAroundToTheStartOfTheRange() throws IOException {
+        holdRange(2, 5);
+        PortProber prober = prober();
+
+        ServerSocket socket = keep(prober.bindFrom(minPort + 5));
+        assertNotNull(socket);
+        assertEquals(minPort, socket.getLocalPort());
+        assertEquals(1, prober.getFailedBinds());
+    }
+
+    @Test
+    void bindBlockFromWrapsAroundToTheStartOfTheRange() throws IOException {
+        holdRange(5);
+        PortProber prober = prober();
+
+        List<ServerSocket> block = prober.bindBlockFrom(minPort + 4, 2);
+        assertNotNull(block);
+        sockets.addAll(block);
+        assertEquals(minPort, block.get(0).getLocalPort());
+        assertEquals(minPort + 1, block.get(1).getLocalPort());
+        assertEquals(1, prober.getFailedBinds());
+
+        block = prober.bindBlockFrom(minPort + 4, 2);
+        assertNotNull(block);
+        sockets.addAll(block);
+        assertEquals(minPort + 2, block.get(0).getLocalPort());
+
+        // only the single port before the held one is left
+        assertNull(prober.bindBlockFrom(minPort + 4, 2));
+    }
+
+    @Test
+    void exhaustedRangeReturnsNull() throws IOException {
+        holdRange(1, 3);
+        PortProber prober = prober();
+
+        for (int i = 0; i < RANGE_SIZE - 2; i++) {
+            assertNotNull(keep(prober.bindNext()));
+        }
+        assertNull(prober.bindNext());
+        assertNull(prober.bindFrom(minPort + 2));
+        assertEquals(RANGE_SIZE, prober.getProbed());
+        assertEquals(2, prober.getFailedBinds());
+    }
+
+    private PortProber prober() {
+        return new PortProber(new PortBitmap(), minPort, minPort + RANGE_SIZE - 1, null, port -> false);
+    }
+
+    private ServerSocket keep(ServerSocket socket) {
+        if (socket != null) {
+            sockets.add(socket);
+        }
+        return socket;
+    }
+
+    /**
+     * Finds a range of free ports below the usual ephemeral ranges, keeping the ports at the given offsets bound.
+     */
+    private void holdRange(int... heldOffsets) throws IOException {
+        for (int base = 21000; base < 31000; base += RANGE_SIZE) {
+            List<ServerSocket> range = new ArrayList<ServerSocket>();
+            try {
+                for (int port = base; port < base + RANGE_SIZE; port++) {
+                    range.add(new ServerSocket(port));
+                }
+            } catch (IOException e) {
+                for (ServerSocket socket : range) {
+                    socket.close();
+                }
+                continue;
+            }
+            minPort = base;
+            for (int offset : heldOffsets) {
+                sockets.add(range.set(offset, null));
+            }
+            for (ServerSocket socket : range) {
+                if (socket != null) {
+                    socket.close();
+                }
+            }
+            return;
+        }
+        throw new IOException("No free port range found");
+    }
+}
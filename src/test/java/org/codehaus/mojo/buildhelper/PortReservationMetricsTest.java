@@ -0,0 +1,79 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PortReservationMetricsTest {
+    @TempDir
+    File tempDir;
+
+    @Test
+    void reportsTheReservation() throws Exception {
+        PortReservationMetrics metrics = new PortReservationMetrics("sequential");
+        metrics.lockRequested();
+        metrics.lockAcquired();
+        metrics.portReserved();
+        metrics.portReserved();
+        metrics.outcome(PortReservationMetrics.RESERVED);
+        PortBitmap reservedPorts = new PortBitmap();
+        reservedPorts.set(40000);
+        reservedPorts.set(40001);
+        metrics.range(40000, 40007, reservedPorts);
+        metrics.lockReleased();
+
+        String json = metrics.toJson();
+        assertTrue(json.contains("\"mode\": \"sequential\""), json);
+        assertTrue(json.contains("\"outcome\": \"reserved\""), json);
+        assertTrue(json.contains("\"portsReserved\": 2"), json);
+        assertTrue(json.contains("\"rangeUtilisation\": 0.2500"), json);
+        assertFalse(json.contains("\"timeToFirstPortMillis\": null"), json);
+    }
+
+    @Test
+    void reportsFailedReservations() throws Exception {
+        PortReservationMetrics metrics = new PortReservationMetrics("ephemeral");
+        metrics.lockRequested();
+        metrics.lockAcquired();
+        metrics.lockReleased();
+
+        File file = new File(tempDir, "metrics/reserve.json");
+        metrics.write(file);
+        String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"outcome\": \"failed\""), json);
+        assertTrue(json.contains("\"portsReserved\": 0"), json);
+        assertTrue(json.contains("\"timeToFirstPortMillis\": null"), json);
+        // Without a range, there is no utilisation to report.
+        assertFalse(json.contains("rangeUtilisation"), json);
+    }
+}
@@ -0,0 +1,87 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProcNetPortsTest {
+
+    private static final String TCP = String.join(
+            "\n",
+            "  sl  local_address rem_address   st tx_queue rx_queue tr tm->when retrnsmt   uid  timeout inode",
+            "   0: 0100007F:1F90 00000000:0000 0A 00000000:00000000 00:00000000 00000000  1000        0 41234 1 0",
+            "   1: 0100007F:C350 0100007F:1F90 06 00000000:00000000 03:00000F3A 00000000     0        0 0 3 0",
+            "   2: 0100007F:9C40 0100007F:1F90 01 00000000:00000000 00:00000000 00000000  1000        0 41240 1 0",
+            "   3: 0100007F:ZZZZ 00000000:0000 0A 00000000:00000000 00:00000000 00000000  1000        0 41241 1 0",
+            "   4: 0100007F:1F91",
+            "garbage",
+            "",
+            "   5: 00000000:0016 00000000:0000 0A 00000000:00000000 00:00000000 00000000     0        0 17012 1 0");
+
+    private static final String TCP6 = String.join(
+            "\n",
+            "  sl  local_address                         remote_address                        st tx_queue rx_queue tr",
+            "   0: 00000000000000000000000000000000:0BB8 00000000000000000000000000000000:0000 0A 00000000:00000000",
+            "   1: 0000000000000000FFFF00000100007F:0BB9 0000000000000000FFFF00000100007F:1F90 06 00000000:00000000",
+            "   2: 00000000000000000000000001000000:0BBA 00000000000000000000000001000000:0BB8 01 00000000:00000000");
+
+    @Test
+    void listeningAndTimeWaitPortsAreBusy() throws IOException {
+        PortBitmap busyPorts = new PortBitmap();
+        ProcNetPorts.read(new StringReader(TCP), busyPorts);
+
+        assertTrue(busyPorts.isSet(8080), "LISTEN");
+        assertTrue(busyPorts.isSet(50000), "TIME_WAIT");
+        assertFalse(busyPorts.isSet(40000), "ESTABLISHED");
+        assertTrue(busyPorts.isSet(22), "row after malformed lines");
+        assertEquals(65536 - 3, busyPorts.countClear(0, 65535));
+    }
+
+    @Test
+    void ipv6RowsAreRead() throws IOException {
+        PortBitmap busyPorts = new PortBitmap();
+        ProcNetPorts.read(new StringReader(TCP6), busyPorts);
+
+        assertTrue(busyPorts.isSet(3000), "LISTEN");
+        assertTrue(busyPorts.isSet(3001), "TIME_WAIT");
+        assertFalse(busyPorts.isSet(3002), "ESTABLISHED");
+    }
+
+    @Test
+    void headerLineIsSkipped() throws IOException {
+        PortBitmap busyPorts = new PortBitmap();
+        // a header which would parse as a listening row
+        ProcNetPorts.read(new StringReader("   0: 00000000:0050 00000000:0000 0A\n"), busyPorts);
+
+        assertEquals(65536, busyPorts.countClear(0, 65535));
+    }
+}
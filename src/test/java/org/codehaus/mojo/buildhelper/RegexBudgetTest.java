@@ -0,0 +1,56 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegexBudgetTest {
+    private static final Pattern CATASTROPHIC = Pattern.compile("(.*a){12}b");
+
+    private static final String INPUT = "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa";
+
+    @Test
+    void stepLimitStopsCatastrophicBacktracking() {
+        RegexBudget budget = new RegexBudget(1000000, 0);
+        assertThrows(
+                RegexBudget.ExceededException.class,
+                () -> CATASTROPHIC.matcher(budget.wrap(INPUT)).find());
+    }
+
+    @Test
+    void timeoutStopsCatastrophicBacktracking() {
+        long start = System.nanoTime();
+        RegexBudget budget = new RegexBudget(0, 100);
+        assertThrows(
+                RegexBudget.ExceededException.class,
+                () -> CATASTROPHIC.matcher(budget.wrap(INPUT)).find());
+        assertTrue(System.nanoTime() - start < 10000000000L);
+    }
+}
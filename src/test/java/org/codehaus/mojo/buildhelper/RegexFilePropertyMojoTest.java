@@ -0,0 +1,96 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RegexFilePropertyMojoTest {
+    private static String filler(int length) {
+        char[] chars = new char[length];
+        Arrays.fill(chars, 'x');
+        return new String(chars);
+    }
+
+    private static String digits(int length) {
+        char[] chars = new char[length];
+        Arrays.fill(chars, '7');
+        return new String(chars);
+    }
+
+    @Test
+    void findsMatchesAcrossChunks() throws Exception {
+        // The version straddles the end of the first chunk.
+        String content = filler(1024 * 1024 - 10) + " version=1.2.345-SNAPSHOT\n" + filler(100000);
+        Matcher matcher = RegexFilePropertyMojo.find(
+                Pattern.compile("version=([\\w.-]+)"), new StringReader(content), 64, new RegexBudget(0, 0));
+        assertEquals("1.2.345-SNAPSHOT", matcher.group(1));
+    }
+
+    @Test
+    void matchesAcrossChunksComeBeforeLaterShorterOnes() throws Exception {
+        // The first window holds 1 MiB and twice the overlap; the first alternative crosses its end, while a shorter
+        // alternative starts inside that match and another one follows it.
+        String match = "a" + filler(20) + "c" + filler(58) + ";";
+        String content = filler(1024 * 1024 + 200 - 40) + match + filler(100) + "c";
+        Matcher matcher = RegexFilePropertyMojo.find(
+                Pattern.compile("a[^;]*;|c"), new StringReader(content), 100, new RegexBudget(0, 0));
+        assertEquals(match, matcher.group());
+    }
+
+    @Test
+    void lookbehindsSeeAcrossChunks() throws Exception {
+        // The digits straddle the end of the first chunk and the lookbehind needs both characters before them.
+        String content = filler(1024 * 1024 + 40) + "v=12" + digits(200) + "|3";
+        Matcher matcher = RegexFilePropertyMojo.find(
+                Pattern.compile("(?<=v=)\\d+"), new StringReader(content), 64, new RegexBudget(0, 0));
+        assertEquals("12" + digits(200), matcher.group());
+    }
+
+    @Test
+    void anchorsOnlyMatchTheEndsOfTheFile() throws Exception {
+        String content = "a" + filler(3 * 1024 * 1024) + "b";
+        assertNull(RegexFilePropertyMojo.find(
+                Pattern.compile("^x"), new StringReader(content), 64, new RegexBudget(0, 0)));
+        assertNull(RegexFilePropertyMojo.find(
+                Pattern.compile("x$"), new StringReader(content), 64, new RegexBudget(0, 0)));
+        assertEquals(
+                "xb",
+                RegexFilePropertyMojo.find(Pattern.compile("xb$"), new StringReader(content), 64, new RegexBudget(0, 0))
+                        .group());
+        assertEquals(
+                "b",
+                RegexFilePropertyMojo.find(
+                                Pattern.compile("(?<=x)b"), new StringReader(content), 64, new RegexBudget(0, 0))
+                        .group());
+    }
+}
@@ -0,0 +1,151 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.shared.model.fileset.FileSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpToDateCheckTest {
+    @TempDir
+    File tempDir;
+
+    private File createFile(String name, long lastModified) throws Exception {
+        File file = new File(tempDir, name);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.createFile(file.toPath());
+        file.setLastModified(lastModified);
+        return file;
+    }
+
+    private FileSet fileSet() {
+        FileSet fileSet = new FileSet();
+        fileSet.setDirectory(new File(tempDir, "src").getPath());
+        fileSet.setOutputDirectory(new File(tempDir, "out").getPath());
+        return fileSet;
+    }
+
+    @Test
+    void aggregateIsStaleWhenTheNewestSourceIsNewerThanTheOldestTarget() throws Exception {
+        long now = System.currentTimeMillis();
+        createFile("src/a.txt", now - 30000L);
+        createFile("src/b.txt", now - 10000L);
+        createFile("out/x.txt", now - 20000L);
+        createFile("out/y.txt", now);
+
+        UpToDateCheck pairs = new UpToDateCheck(fileSet(), null, false, new SystemStreamLog());
+        assertTrue(pairs.isUpToDate("a.txt", "x.txt"));
+        assertTrue(pairs.isUpToDate("b.txt", "y.txt"));
+        assertTrue(pairs.isUpToDate());
+
+        UpToDateCheck check = new UpToDateCheck(fileSet(), null, true, new SystemStreamLog());
+        assertTrue(check.isUpToDate("a.txt", "x.txt"));
+        assertFalse(check.isUpToDate("b.txt", "y.txt"));
+        assertFalse(check.isUpToDate());
+    }
+
+    @Test
+    void aggregateIsStaleWhenATargetIsMissing() throws Exception {
+        long now = System.currentTimeMillis();
+        createFile("src/a.txt", now - 20000L);
+        createFile("src/b.txt", now - 20000L);
+        createFile("out/x.txt", now);
+
+        UpToDateCheck check = new UpToDateCheck(fileSet(), null, true, new SystemStreamLog());
+        assertTrue(check.isUpToDate("a.txt", "x.txt"));
+        assertFalse(check.isUpToDate("b.txt", "missing.txt"));
+        assertFalse(check.isUpToDate());
+        assertEquals(-1L, check.getStalePairs().get(0).getTargetModified());
+    }
+
+    @Test
+    void aggregateIsUpToDateWhenAllTargetsAreNewer() throws Exception {
+        long now = System.currentTimeMillis();
+        createFile("src/a.txt", now - 30000L);
+        createFile("src/b.txt", now - 20000L);
+        createFile("out/x.txt", now - 10000L);
+        createFile("out/y.txt", now);
+
+        UpToDateCheck check = new UpToDateCheck(fileSet(), null, true, new SystemStreamLog());
+        assertTrue(check.isUpToDate("a.txt", "y.txt"));
+        assertTrue(check.isUpToDate("b.txt", "x.txt"));
+        assertFalse(check.isDecided());
+        assertTrue(check.isUpToDate());
+    }
+
+    @Test
+    void aggregateIsDecidedByTheFirstStalePair() throws Exception {
+        long now = System.currentTimeMillis();
+        createFile("src/a.txt", now - 30000L);
+        createFile("src/b.txt", now);
+        createFile("src/c.txt", now);
+        createFile("out/x.txt", now - 20000L);
+
+        UpToDateCheck check = new UpToDateCheck(fileSet(), null, true, new SystemStreamLog());
+        // the limit only applies when comparing pairs
+        check.setStaleLimit(5);
+        assertTrue(check.isUpToDate("a.txt", "x.txt"));
+        assertFalse(check.isDecided());
+        assertFalse(check.isUpToDate("b.txt", "x.txt"));
+        assertTrue(check.isDecided());
+        assertEquals(1, check.getStalePairs().size());
+        assertEquals("b.txt", check.getStalePairs().get(0).getSource());
+    }
+
+    @Test
+    void manySourcesMappedToOneTarget() throws Exception {
+        long now = System.currentTimeMillis();
+        createFile("src/a.txt", now - 30000L);
+        createFile("src/b.txt", now);
+        createFile("src/c.txt", now - 30000L);
+        createFile("out/all.txt", now - 20000L);
+
+        UpToDateCheck check = new UpToDateCheck(fileSet(), null, false, new SystemStreamLog());
+        check.setStaleLimit(5);
+        assertTrue(check.isUpToDate("a.txt", "all.txt"));
+        // only the source newer than the shared target is out of date
+        assertFalse(check.isUpToDate("b.txt", "all.txt"));
+        assertTrue(check.isUpToDate("c.txt", "all.txt"));
+        assertFalse(check.isUpToDate());
+        assertEquals(1, check.getStalePairs().size());
+        assertEquals("b.txt", check.getStalePairs().get(0).getSource());
+
+        createFile("out/other.txt", now + 10000L);
+        UpToDateCheck upToDate = new UpToDateCheck(fileSet(), null, false, new SystemStreamLog());
+        for (String source : new String[] {"a.txt", "b.txt", "c.txt"}) {
+            assertTrue(upToDate.isUpToDate(source, "other.txt"));
+        }
+        assertTrue(upToDate.isUpToDate());
+        assertEquals(3, upToDate.getCompared());
+    }
+}
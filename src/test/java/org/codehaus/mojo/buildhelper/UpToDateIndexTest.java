@@ -0,0 +1,120 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.apache.maven.shared.model.fileset.FileSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UpToDateIndexTest {
+    @TempDir
+    File tempDir;
+
+    private static Map<String, Long> scan(UpToDateIndex index, FileSet fileSet) throws Exception {
+        UpToDateIndex.Snapshot snapshot = index.snapshot();
+        new FileSetScanner(fileSet).scan(new FileSetScanner.Visitor() {
+            @Override
+            public boolean visit(String source, BasicFileAttributes attrs, String target) {
+                return true;
+            }
+
+            @Override
+            public void visitDirectory(String name, BasicFileAttributes attrs) {
+                snapshot.add(name, attrs);
+            }
+        });
+        return snapshot.getDirectories();
+    }
+
+    private static void setLastModified(File root, long time) throws Exception {
+        try (Stream<Path> paths = Files.walk(root.toPath())) {
+            paths.forEach(path -> path.toFile().setLastModified(time));
+        }
+    }
+
+    @Test
+    void indexIsInvalidatedByNewFiles() throws Exception {
+        File sources = new File(tempDir, "src");
+        File dir = new File(sources, "dir");
+        Files.createDirectories(dir.toPath());
+        Files.createFile(new File(dir, "a.txt").toPath());
+        setLastModified(sources, System.currentTimeMillis() - 60000L);
+
+        FileSet fileSet = new FileSet();
+        fileSet.setDirectory(sources.getPath());
+        UpToDateIndex index = new UpToDateIndex(new File(tempDir, "state"), fileSet);
+        assertNull(index.load());
+
+        Map<String, Long> directories = scan(index, fileSet);
+        assertNotNull(directories);
+        index.store(directories, Collections.singletonMap("dir" + File.separator + "a.txt", "a.txt"));
+        assertEquals(
+                Collections.singletonMap("dir" + File.separator + "a.txt", "a.txt"),
+                new UpToDateIndex(new File(tempDir, "state"), fileSet).load());
+
+        Files.createFile(new File(dir, "b.txt").toPath());
+        assertNull(index.load());
+        assertNull(scan(index, fileSet));
+    }
+
+    @Test
+    void onlyDirectoriesTheScanDescendsIntoAreRecorded() throws Exception {
+        File sources = new File(tempDir, "src");
+        for (String name : new String[] {"java/a.java", "docs/b.txt", ".git/objects/c", "state/x.idx"}) {
+            File file = new File(sources, name);
+            Files.createDirectories(file.getParentFile().toPath());
+            Files.createFile(file.toPath());
+        }
+        setLastModified(sources, System.currentTimeMillis() - 60000L);
+
+        FileSet fileSet = new FileSet();
+        fileSet.setDirectory(sources.getPath());
+        fileSet.addInclude("java/**");
+        fileSet.addInclude("state/**");
+        UpToDateIndex index = new UpToDateIndex(new File(sources, "state"), fileSet);
+        assertEquals(
+                new HashSet<>(Arrays.asList("", "java")), scan(index, fileSet).keySet());
+
+        // Changes to directories the scan does not look into keep the index valid.
+        index.store(scan(index, fileSet), Collections.singletonMap("java" + File.separator + "a.java", null));
+        Files.createFile(new File(sources, "docs/new.txt").toPath());
+        Files.createFile(new File(sources, ".git/objects/d").toPath());
+        assertNotNull(index.load());
+    }
+}
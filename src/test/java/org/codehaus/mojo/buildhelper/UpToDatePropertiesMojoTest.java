@@ -0,0 +1,122 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.model.fileset.FileSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UpToDatePropertiesMojoTest {
+    @TempDir
+    File tempDir;
+
+    private void createFile(String name, long lastModified) throws Exception {
+        File file = new File(tempDir, name);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.createFile(file.toPath());
+        file.setLastModified(lastModified);
+    }
+
+    private UpToDatePropertySetting setting(String name, String directory, String outputDirectory, String include) {
+        FileSet fileSet = new FileSet();
+        fileSet.setDirectory(new File(tempDir, directory).getPath());
+        fileSet.setOutputDirectory(new File(tempDir, outputDirectory).getPath());
+        if (include != null) {
+            fileSet.addInclude(include);
+        }
+        UpToDatePropertySetting setting = new UpToDatePropertySetting();
+        setting.setName(name);
+        setting.setValue("uptodate");
+        setting.setElse("outofdate");
+        setting.setFileSet(fileSet);
+        return setting;
+    }
+
+    private static void set(Object mojo, String name, Object value) throws Exception {
+        for (Class<?> type = mojo.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                field.set(mojo, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                // declared by a superclass
+            }
+        }
+        throw new NoSuchFieldException(name);
+    }
+
+    @Test
+    void settingsWalkedTogetherHaveIndependentOutcomes() throws Exception {
+        long now = System.currentTimeMillis();
+        createFile("src/a.txt", now - 20000L);
+        createFile("src/sub/b.txt", now - 20000L);
+        createFile("src/sub/c.java", now - 20000L);
+        createFile("other/d.txt", now);
+        createFile("out/a.txt", now - 10000L);
+        createFile("out/sub/b.txt", now - 10000L);
+        createFile("out/sub/c.java", now - 10000L);
+        createFile("out2/d.txt", now - 10000L);
+        createFile("out3/d.txt", now + 10000L);
+
+        UpToDatePropertiesMojo mojo = new UpToDatePropertiesMojo();
+        MavenProject project = new MavenProject();
+        set(mojo, "project", project);
+        set(mojo, "compare", "timestamp");
+        set(mojo, "parallelism", 4);
+        set(mojo, "stateDirectory", new File(tempDir, "state"));
+        set(
+                mojo,
+                "upToDatePropertySettings",
+                Arrays.asList(
+                        // walked together, the stale one ends only its own part of the walk
+                        setting("java", "src", "out", "**/*.java"),
+                        setting("all", "src", "out2", null),
+                        setting("txt", "src", "out", "**/*.txt"),
+                        // nested in the directory above, so walked after it
+                        setting("sub", "src/sub", "out/sub", null),
+                        // walked in parallel with the ones above
+                        setting("other", "other", "out", null),
+                        setting("other2", "other", "out3", null)));
+        mojo.execute();
+
+        Properties properties = project.getProperties();
+        assertEquals("uptodate", properties.getProperty("java"));
+        assertEquals("outofdate", properties.getProperty("all"));
+        assertEquals("uptodate", properties.getProperty("txt"));
+        assertEquals("uptodate", properties.getProperty("sub"));
+        assertEquals("outofdate", properties.getProperty("other"));
+        assertEquals("uptodate", properties.getProperty("other2"));
+    }
+}
@@ -0,0 +1,99 @@
+package org.codehaus.mojo.buildhelper;
+
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2004, The Codehaus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.shared.model.fileset.FileSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpToDateReportTest {
+    @TempDir
+    File tempDir;
+
+    private File createFile(String name, long lastModified) throws Exception {
+        File file = new File(tempDir, name);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.createFile(file.toPath());
+        file.setLastModified(lastModified);
+        return file;
+    }
+
+    private UpToDateCheck check() {
+        FileSet fileSet = new FileSet();
+        fileSet.setDirectory(new File(tempDir, "src").getPath());
+        fileSet.setOutputDirectory(new File(tempDir, "out").getPath());
+        return new UpToDateCheck(fileSet, null, false, new SystemStreamLog());
+    }
+
+    @Test
+    void onlyTargetReadsAreTimed() throws Exception {
+        File a = createFile("src/a.txt", 20000L);
+        createFile("out/a.txt", 10000L);
+        BasicFileAttributes attrs = Files.readAttributes(a.toPath(), BasicFileAttributes.class);
+
+        UpToDateCheck check = check();
+        // the source attributes come from the walk, and no target is mapped
+        assertTrue(check.isUpToDate("a.txt", attrs, null));
+        assertEquals(0L, check.getTargetStatNanos());
+
+        assertFalse(check.isUpToDate("a.txt", attrs, "a.txt"));
+        assertTrue(check.getTargetStatNanos() > 0L);
+    }
+
+    @Test
+    void reportsStalePairs() throws Exception {
+        createFile("src/a.txt", 20000L);
+        createFile("out/a.txt", 10000L);
+        UpToDateCheck check = check();
+        assertFalse(check.isUpToDate("a.txt", "a.txt"));
+
+        UpToDateReport report = new UpToDateReport();
+        report.add("stale", "src", false, false, false, 2000000L, check);
+
+        String json = report.toJson();
+        assertTrue(json.contains("\"name\": \"stale\""), json);
+        assertTrue(json.contains("\"walkMillis\": 2.000"), json);
+        assertTrue(json.contains("\"targetStatMillis\": "), json);
+        assertTrue(
+                json.contains("{\"source\": \"a.txt\", \"sourceModified\": 20000, \"target\": \"a.txt\", "
+                        + "\"targetModified\": 10000}"),
+                json);
+
+        String[] csv = report.toCsv().split("\n");
+        assertEquals(2, csv.length);
+        assertTrue(csv[0].startsWith("name,directory,upToDate,indexed,filesVisited,walkMillis,targetStatMillis,"));
+        assertTrue(csv[1].startsWith("stale,src,false,false,1,2.000,"), csv[1]);
+        assertTrue(csv[1].endsWith(",false,a.txt,20000,a.txt,10000"), csv[1]);
+    }
+}